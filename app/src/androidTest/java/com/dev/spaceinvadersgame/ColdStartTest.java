@@ -0,0 +1,46 @@
+package com.dev.spaceinvadersgame;
+
+import android.app.Activity;
+import android.app.Instrumentation;
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.SystemClock;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Starts the game and reports how long it takes until every asset is resident.
+ * The time shows up in the instrumentation output as coldStartMs:
+ * adb shell am instrument -r -w -e class com.dev.spaceinvadersgame.ColdStartTest ...
+ */
+@RunWith(AndroidJUnit4.class)
+public class ColdStartTest {
+    private static final long TIMEOUT_MS = 10000;
+
+    @Test
+    public void assetsBecomeResident() {
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        Intent intent = new Intent(instrumentation.getTargetContext(), SpaceInvadersActivity.class);
+        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+        SpaceInvadersActivity activity = (SpaceInvadersActivity) instrumentation.startActivitySync(intent);
+
+        long deadline = SystemClock.uptimeMillis() + TIMEOUT_MS;
+        long coldStartNanos;
+        while ((coldStartNanos = activity.spaceInvadersView.getColdStartNanos()) < 0 && SystemClock.uptimeMillis() < deadline) {
+            SystemClock.sleep(10);
+        }
+        activity.finish();
+
+        assertTrue("assets not resident after " + TIMEOUT_MS + " ms", coldStartNanos >= 0);
+
+        Bundle results = new Bundle();
+        results.putLong("coldStartMs", coldStartNanos / 1000000);
+        instrumentation.sendStatus(Activity.RESULT_OK, results);
+    }
+}
@@ -0,0 +1,106 @@
+package com.dev.spaceinvadersgame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each phase of a tick measured on its own, ns per call.
+ * Bullets are topped up before every call, outside the measurement, so the load stays the same.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    @Param({"30", "300", "3000"})
+    int invaders;
+
+    @Param({"10", "200", "2000"})
+    int bullets;
+
+    private GameWorld world;
+    private GameRandom random;
+    private int calls;
+
+    @Setup
+    public void setUp() {
+        world = WorldFixture.create(invaders, bullets, 42);
+        random = new GameRandom(7);
+    }
+
+    @Setup(Level.Invocation)
+    public void refill() {
+        if (++calls % WorldFixture.TICKS_PER_LEVEL == 0) {
+            world.prepareLevel();
+        }
+        WorldFixture.fillBullets(world, random);
+        WorldFixture.keepPlaying(world);
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkNotLost() {
+        WorldFixture.checkNotLost(world);
+    }
+
+    @Benchmark
+    public GameWorld moveShipAndInvaders() {
+        world.moveShipAndInvaders(WorldFixture.TICK_NANOS / 1e9f);
+        return world;
+    }
+
+    @Benchmark
+    public GameWorld fireInvaderBullets() {
+        world.fireInvaderBullets(WorldFixture.TICK_NANOS);
+        return world;
+    }
+
+    @Benchmark
+    public GameWorld moveBullets() {
+        world.moveBullets(WorldFixture.TICK_NANOS / 1e9f);
+        return world;
+    }
+
+    @Benchmark
+    public GameWorld playerBulletsVsInvaders() {
+        world.handleCommand(InputCommand.FIRE);
+        world.collidePlayerBulletsWithInvaders();
+        return world;
+    }
+
+    /**
+     * A full pool of player bullets against the invader bullets, the worst case of interception
+     */
+    @Benchmark
+    public GameWorld bulletsVsBullets() {
+        WorldFixture.fillPlayerBullets(world, random);
+        world.collideBulletsWithBullets();
+        return world;
+    }
+
+    @Benchmark
+    public GameWorld invaderBulletsVsShelters() {
+        world.collideInvaderBulletsWithShelters();
+        return world;
+    }
+
+    @Benchmark
+    public GameWorld invaderBulletsVsPlayer() {
+        world.collideInvaderBulletsWithPlayer();
+        return world;
+    }
+}
@@ -0,0 +1,42 @@
+package com.dev.spaceinvadersgame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of prepareLevel() once the first level exists, should allocate 0 bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelResetBenchmark {
+    @Param({"30", "300", "3000"})
+    int invaders;
+
+    private GameWorld world;
+
+    @Setup
+    public void setUp() {
+        world = WorldFixture.create(invaders, 10, 42);
+    }
+
+    @Benchmark
+    public GameWorld prepareLevel() {
+        world.prepareLevel();
+        return world;
+    }
+}
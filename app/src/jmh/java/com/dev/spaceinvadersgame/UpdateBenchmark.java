@@ -0,0 +1,66 @@
+package com.dev.spaceinvadersgame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one whole simulation tick, ns/frame.
+ * Run with -prof gc (the jmh task does) to also get bytes allocated per frame.
+ * The bullets are topped up and the level reset between ticks, outside the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateBenchmark {
+    @Param({"30", "300", "3000"})
+    int invaders;
+
+    @Param({"10", "200", "2000"})
+    int bullets;
+
+    private GameWorld world;
+    private GameRandom random;
+    private int ticks;
+
+    @Setup
+    public void setUp() {
+        world = WorldFixture.create(invaders, bullets, 42);
+        random = new GameRandom(7);
+    }
+
+    @Setup(Level.Invocation)
+    public void refill() {
+        if (++ticks % WorldFixture.TICKS_PER_LEVEL == 0) {
+            world.prepareLevel();
+        }
+        WorldFixture.fillBullets(world, random);
+        WorldFixture.keepPlaying(world);
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkNotLost() {
+        WorldFixture.checkNotLost(world);
+    }
+
+    @Benchmark
+    public GameWorld tick() {
+        world.update(WorldFixture.TICK_NANOS);
+        return world;
+    }
+}
@@ -0,0 +1,93 @@
+package com.dev.spaceinvadersgame;
+
+/**
+ * Builds and refills worlds for the benchmarks.
+ */
+final class WorldFixture {
+    static final int SCREEN_X = 1080;
+    static final int SCREEN_Y = 1920;
+    static final long TICK_NANOS = 1000000000L / 60;
+
+    /**
+     * Reset the level this often so the formation never drifts off screen
+     * or speeds up without bound during a long measurement
+     */
+    static final int TICKS_PER_LEVEL = 600;
+
+    private WorldFixture() {
+    }
+
+    /**
+     * A running world with roughly the requested number of invaders
+     */
+    static GameWorld create(int invaders, int bullets, long seed) {
+        int columns = Math.max(1, (int) Math.round(Math.sqrt(invaders * 1.2)));
+        int rows = Math.max(1, invaders / columns);
+        GameWorld world = new GameWorld(SCREEN_X, SCREEN_Y, bullets, seed, columns, rows);
+        /**
+         * Formations of hundreds of invaders don't fit on the screen, they would land at once
+         */
+        world.invadersCanLand = false;
+        world.handleCommand(InputCommand.START);
+        return world;
+    }
+
+    /**
+     * Invader bullets are kept above this line, well over a tick's fall short of the ship,
+     * so the player is never hit and the measurements time the update, not game overs and level resets
+     */
+    static float bulletFloor(GameWorld world) {
+        return world.playerShip.getRect().top - world.invadersBullets.getHeight() - SCREEN_Y / 20;
+    }
+
+    /**
+     * Top the invader bullet pool back up so every tick sees the same load,
+     * dropping the bullets that came down to the floor first
+     */
+    static void fillBullets(GameWorld world, GameRandom random) {
+        BulletPool pool = world.invadersBullets;
+        float floor = bulletFloor(world);
+        for (int i = pool.size() - 1; i >= 0; i--) {
+            if (pool.getY(i) > floor) {
+                pool.kill(i);
+            }
+        }
+        while (pool.size() < pool.getCapacity()) {
+            pool.spawn(random.nextFloat() * SCREEN_X, random.nextFloat() * floor, BulletPool.DEFAULT_SPEED);
+        }
+    }
+
+    /**
+     * Top the player bullet pool back up as if the busiest weapon had been fired for a while
+     */
+    static void fillPlayerBullets(GameWorld world, GameRandom random) {
+        BulletPool pool = world.playerBullets;
+        while (pool.size() < pool.getCapacity()) {
+            pool.spawn(random.nextFloat() * SCREEN_X, random.nextFloat() * SCREEN_Y, 0, -BulletPool.DEFAULT_SPEED);
+        }
+    }
+
+    /**
+     * Keep the world playing after a win
+     * A game over means the fixture let the player die and the numbers are worthless, so the run fails
+     */
+    static void keepPlaying(GameWorld world) {
+        checkNotLost(world);
+        if (world.isPaused()) {
+            world.handleCommand(InputCommand.START);
+        }
+        world.getEvents().clear();
+    }
+
+    /**
+     * Fail if the game was lost since the events were last cleared
+     */
+    static void checkNotLost(GameWorld world) {
+        GameEvents events = world.getEvents();
+        for (int i = 0; i < events.size(); i++) {
+            if (events.get(i).getType() == GameEvents.GAME_OVER) {
+                throw new IllegalStateException("The game was lost during the measurement at tick " + world.getTick());
+            }
+        }
+    }
+}
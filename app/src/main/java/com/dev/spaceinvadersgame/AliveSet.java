@@ -0,0 +1,123 @@
+package com.dev.spaceinvadersgame;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A set of ids packed one bit per id, used to know which invaders
+ * are still alive. It only grows when asked to, never while the game is being played.
+ * The number of members is kept up to date so "is anybody left"
+ * costs nothing, and nextAlive() jumps over whole words of dead ids at a time.
+ */
+public class AliveSet {
+    private long[] words;
+    private int capacity;
+    private int count;
+
+    public AliveSet(int capacity) {
+        this.capacity = capacity;
+        words = new long[(capacity + 63) >>> 6];
+    }
+
+    /**
+     * Make room for ids up to capacity - 1, the members stay as they are
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > this.capacity) {
+            words = Arrays.copyOf(words, (capacity + 63) >>> 6);
+            this.capacity = capacity;
+        }
+    }
+
+    /**
+     * Make ids 0 to size - 1 alive and every other id dead
+     */
+    public void fill(int size) {
+        if (size > capacity) {
+            throw new IllegalArgumentException("size " + size + " is over the capacity " + capacity);
+        }
+        count = 0;
+        for (int word = 0; word < words.length; word++) {
+            int bits = Math.max(0, Math.min(64, size - (word << 6)));
+            words[word] = bits == 64 ? -1L : (1L << bits) - 1;
+            count += Long.bitCount(words[word]);
+        }
+    }
+
+    public boolean get(int id) {
+        return (words[id >>> 6] & (1L << id)) != 0;
+    }
+
+    /**
+     * Remove an id, returns false if it was already dead
+     */
+    public boolean clear(int id) {
+        long bit = 1L << id;
+        if ((words[id >>> 6] & bit) == 0) {
+            return false;
+        }
+        words[id >>> 6] &= ~bit;
+        count--;
+        return true;
+    }
+
+    /**
+     * The first living id at or after from, -1 if there is none
+     */
+    public int nextAlive(int from) {
+        if (from >= capacity) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long bits = words[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+    }
+
+    /**
+     * How many ids are alive
+     */
+    public int count() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Save the members, one bit each
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(capacity);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    /**
+     * Restore the members written by writeState(), growing to hold them if needed
+     */
+    void readState(DataInput in) throws IOException {
+        int savedCapacity = in.readInt();
+        if (savedCapacity < 0) {
+            throw new IOException("Saved set holds " + savedCapacity + " ids");
+        }
+        ensureCapacity(savedCapacity);
+        int savedWords = (savedCapacity + 63) >>> 6;
+        count = 0;
+        for (int word = 0; word < words.length; word++) {
+            words[word] = word < savedWords ? in.readLong() : 0;
+            count += Long.bitCount(words[word]);
+        }
+    }
+}
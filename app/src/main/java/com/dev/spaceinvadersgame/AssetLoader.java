@@ -0,0 +1,166 @@
+package com.dev.spaceinvadersgame;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.content.res.Resources;
+import android.media.SoundPool;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the sounds and the sprites on background threads so the UI thread
+ * can show the first frame straight away.
+ * Sounds only count as loaded once SoundPool reports them decoded, sprites once the atlas is built.
+ * When everything is resident the loader turns ready and tells its listener how long it took.
+ */
+public class AssetLoader implements SoundPool.OnLoadCompleteListener {
+    /**
+     * Told once, from whichever thread finished the last asset, when every asset is resident
+     */
+    public interface Listener {
+        void onAssetsReady(long loadNanos);
+    }
+
+    private final AssetManager assetManager;
+    private final SoundPool soundPool;
+    private final AudioMixer audio;
+    private final Listener listener;
+
+    /**
+     * Two threads so sounds and sprites load side by side, they go away once idle
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Assets still on their way, plus one until seal() so we can't turn ready half way through queuing
+     */
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private volatile boolean ready;
+    private final long startNanos;
+
+    /**
+     * The events each SoundPool sample is played for, indexed by sample id, null for none
+     */
+    private final int[][] sampleEvents = new int[64][];
+
+    public AssetLoader(AssetManager assetManager, SoundPool soundPool, AudioMixer audio, Listener listener) {
+        this.assetManager = assetManager;
+        this.soundPool = soundPool;
+        this.audio = audio;
+        this.listener = listener;
+        startNanos = System.nanoTime();
+
+        executor = new ThreadPoolExecutor(2, 2, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        executor.allowCoreThreadTimeOut(true);
+
+        soundPool.setOnLoadCompleteListener(this);
+    }
+
+    /**
+     * Queue a sound file, the mixer plays it for each of the events once it is decoded
+     * A file is loaded and decoded once however many events share it
+     */
+    public void loadSound(final String file, int... events) {
+        final int[] soundEvents = events.clone();
+        pending.incrementAndGet();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                AssetFileDescriptor descriptor = null;
+                try {
+                    descriptor = assetManager.openFd(file);
+                    synchronized (sampleEvents) {
+                        int sampleId = soundPool.load(descriptor, 1);
+                        if (sampleId > 0 && sampleId < sampleEvents.length) {
+                            sampleEvents[sampleId] = soundEvents;
+                            return;
+                        }
+                    }
+                    Log.e("Error", "Failed to load " + file);
+                    done();
+                } catch (IOException e) {
+                    Log.e("Error", "Failed to load " + file);
+                    done();
+                } finally {
+                    close(descriptor);
+                }
+            }
+        });
+    }
+
+    /**
+     * Build the sprite atlas on a loader thread
+     */
+    public void loadSprites(final SpriteAtlas sprites, final Resources resources, final int screenX, final int screenY) {
+        pending.incrementAndGet();
+        reloadSprites(sprites, resources, screenX, screenY, true);
+    }
+
+    /**
+     * Build the atlas again after it was released, doesn't hold up readiness
+     */
+    public void reloadSprites(SpriteAtlas sprites, Resources resources, int screenX, int screenY) {
+        reloadSprites(sprites, resources, screenX, screenY, false);
+    }
+
+    private void reloadSprites(final SpriteAtlas sprites, final Resources resources, final int screenX, final int screenY, final boolean counted) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                sprites.load(resources, screenX, screenY);
+                if (counted) {
+                    done();
+                }
+            }
+        });
+    }
+
+    /**
+     * Every asset has been queued, ready can now be reached
+     */
+    public void seal() {
+        done();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void onLoadComplete(SoundPool soundPool, int sampleId, int status) {
+        int[] events;
+        synchronized (sampleEvents) {
+            events = sampleId > 0 && sampleId < sampleEvents.length ? sampleEvents[sampleId] : null;
+        }
+        if (status == 0 && events != null) {
+            for (int event : events) {
+                audio.setSound(event, sampleId);
+            }
+        } else {
+            Log.e("Error", "Failed to decode sound " + sampleId);
+        }
+        done();
+    }
+
+    private void done() {
+        if (pending.decrementAndGet() == 0) {
+            ready = true;
+            listener.onAssetsReady(System.nanoTime() - startNanos);
+        }
+    }
+
+    private static void close(AssetFileDescriptor descriptor) {
+        if (descriptor != null) {
+            try {
+                descriptor.close();
+            } catch (IOException e) {
+                Log.e("Error", "Failed to close an asset");
+            }
+        }
+    }
+}
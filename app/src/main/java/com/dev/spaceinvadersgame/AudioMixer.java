@@ -0,0 +1,195 @@
+package com.dev.spaceinvadersgame;
+
+import android.media.SoundPool;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays the game's sounds on a thread of its own.
+ * The simulation only posts GameEvents codes into a lock-free queue and carries on,
+ * it never waits on SoundPool. Once per batch the audio thread:
+ * - plays each sound at most once however many times it was posted (coalescing),
+ * - skips a sound played too recently (rate limit per sound),
+ * - when every voice is busy, stops the least important oldest voice
+ *   for a sound that matters at least as much, or drops the new sound (voice stealing).
+ * SoundPool is never asked for more voices than it has, so it never drops one silently.
+ */
+public class AudioMixer implements Runnable {
+    /**
+     * Highest GameEvents code plus one
+     */
+    private static final int EVENT_COUNT = 9;
+
+    private final SoundPool soundPool;
+    private final int maxVoices;
+
+    /**
+     * Events posted by the simulation, not yet looked at by the audio thread
+     */
+    private final CommandQueue queue = new CommandQueue(256);
+
+    /**
+     * What to play for each event, 0 or less means no sound
+     * Set by SoundPool's load callback thread and read by the audio thread, so atomic
+     */
+    private final AtomicIntegerArray soundIds = new AtomicIntegerArray(EVENT_COUNT);
+    private final int[] priorities = new int[EVENT_COUNT];
+    private final long[] minIntervalNanos = new long[EVENT_COUNT];
+    private final long[] durationNanos = new long[EVENT_COUNT];
+    private final long[] lastPlayed = new long[EVENT_COUNT];
+
+    /**
+     * Events seen in the current batch, each plays once
+     */
+    private final boolean[] pending = new boolean[EVENT_COUNT];
+
+    /**
+     * The voices in use: their SoundPool stream, priority and when they should be done
+     */
+    private final int[] voiceStreams;
+    private final int[] voicePriorities;
+    private final long[] voiceEnds;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public AudioMixer(SoundPool soundPool, int maxVoices) {
+        this.soundPool = soundPool;
+        this.maxVoices = maxVoices;
+        voiceStreams = new int[maxVoices];
+        voicePriorities = new int[maxVoices];
+        voiceEnds = new long[maxVoices];
+        for (int event = 0; event < EVENT_COUNT; event++) {
+            lastPlayed[event] = Long.MIN_VALUE / 2;
+        }
+    }
+
+    /**
+     * Tell the mixer how to play an event
+     * durationNanos is roughly how long the sound lasts, the voice is considered busy until then
+     */
+    public void register(int event, int priority, long minIntervalNanos, long durationNanos) {
+        priorities[event] = priority;
+        this.minIntervalNanos[event] = minIntervalNanos;
+        this.durationNanos[event] = durationNanos;
+    }
+
+    /**
+     * The SoundPool sample for an event, set once it has been decoded
+     * Events without one are ignored
+     */
+    public void setSound(int event, int soundId) {
+        soundIds.set(event, soundId);
+    }
+
+    /**
+     * Called by the simulation thread, never blocks, the event is dropped if the queue is full
+     */
+    public void post(int event) {
+        queue.offer(event);
+    }
+
+    /**
+     * Called by the simulation thread once it posted a batch, wakes the audio thread up
+     */
+    public void flush() {
+        Thread audio = thread;
+        if (audio != null) {
+            LockSupport.unpark(audio);
+        }
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this, "audio");
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        Thread audio = thread;
+        if (audio != null) {
+            LockSupport.unpark(audio);
+            try {
+                audio.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            /**
+             * Sleep until the simulation has something for us
+             */
+            LockSupport.park(this);
+
+            int event;
+            while ((event = queue.poll()) != CommandQueue.EMPTY) {
+                if (event < EVENT_COUNT && soundIds.get(event) > 0) {
+                    pending[event] = true;
+                }
+            }
+
+            playPending(System.nanoTime());
+        }
+    }
+
+    /**
+     * Play this batch, the most important sounds first so they get the free voices
+     */
+    private void playPending(long now) {
+        while (true) {
+            int best = -1;
+            for (int event = 0; event < EVENT_COUNT; event++) {
+                if (pending[event] && (best == -1 || priorities[event] > priorities[best])) {
+                    best = event;
+                }
+            }
+            if (best == -1) {
+                return;
+            }
+            pending[best] = false;
+
+            if (now - lastPlayed[best] < minIntervalNanos[best]) {
+                continue;
+            }
+
+            int voice = findVoice(priorities[best], now);
+            if (voice == -1) {
+                continue;
+            }
+            if (voiceStreams[voice] != 0 && voiceEnds[voice] > now) {
+                soundPool.stop(voiceStreams[voice]);
+            }
+
+            int stream = soundPool.play(soundIds.get(best), 1, 1, priorities[best], 0, 1);
+            voiceStreams[voice] = stream;
+            voicePriorities[voice] = priorities[best];
+            voiceEnds[voice] = stream == 0 ? now : now + durationNanos[best];
+            lastPlayed[best] = now;
+        }
+    }
+
+    /**
+     * A free voice, or the one to steal, or -1 if everything playing matters more
+     */
+    private int findVoice(int priority, long now) {
+        int victim = -1;
+        for (int voice = 0; voice < maxVoices; voice++) {
+            if (voiceStreams[voice] == 0 || voiceEnds[voice] <= now) {
+                return voice;
+            }
+            if (voicePriorities[voice] <= priority
+                    && (victim == -1 || voicePriorities[voice] < voicePriorities[victim]
+                    || (voicePriorities[voice] == voicePriorities[victim] && voiceEnds[voice] < voiceEnds[victim]))) {
+                victim = voice;
+            }
+        }
+        return victim;
+    }
+}
@@ -0,0 +1,245 @@
+package com.dev.spaceinvadersgame;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Holds many bullets as plain float arrays instead of one object each.
+ * Live bullets are always packed at the front of the arrays,
+ * removing one moves the last live bullet into its slot,
+ * so loops only ever visit bullets that are in flight.
+ * All bullets in a pool share the same size.
+ * Most fly straight up or down, a spread shot also drifts sideways.
+ */
+public class BulletPool {
+    /**
+     * Pixels per second a fired bullet travels, the invaders' and the classic gun's
+     */
+    public static final float DEFAULT_SPEED = 350;
+
+    private final float[] x;
+    private final float[] y;
+    private final float[] previousX;
+    private final float[] previousY;
+
+    /**
+     * Velocity in pixels per second, positive is going right and down
+     */
+    private final float[] velocityX;
+    private final float[] velocityY;
+
+    private int count;
+
+    private final float width;
+    private final float height;
+
+    public BulletPool(int capacity, int screenY) {
+        x = new float[capacity];
+        y = new float[capacity];
+        previousX = new float[capacity];
+        previousY = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+
+        width = 1;
+        height = screenY / 20;
+    }
+
+    public int getCapacity() {
+        return x.length;
+    }
+
+    /**
+     * How many bullets are in flight, they live in slots 0 to size() - 1
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Fire a new bullet, returns false when the pool is full
+     */
+    public boolean spawn(float startX, float startY, float speedY) {
+        return spawn(startX, startY, 0, speedY);
+    }
+
+    /**
+     * Fire a new bullet that also moves sideways, returns false when the pool is full
+     */
+    public boolean spawn(float startX, float startY, float speedX, float speedY) {
+        if (count == x.length) {
+            return false;
+        }
+
+        x[count] = startX;
+        y[count] = startY;
+        previousX[count] = startX;
+        previousY[count] = startY;
+        velocityX[count] = speedX;
+        velocityY[count] = speedY;
+        count++;
+
+        return true;
+    }
+
+    /**
+     * Remove the bullet in this slot
+     * The last live bullet takes its place, so loop from the end when removing while iterating
+     */
+    public void kill(int i) {
+        count--;
+        x[i] = x[count];
+        y[i] = y[count];
+        previousX[i] = previousX[count];
+        previousY[i] = previousY[count];
+        velocityX[i] = velocityX[count];
+        velocityY[i] = velocityY[count];
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Move every live bullet and drop the ones whose tip left the area between minY and maxY
+     * A bullet is only dropped once it was already out at the previous tick,
+     * so the path it just swept still gets tested for hits
+     */
+    public void update(float dt, float minY, float maxY) {
+        update(dt, Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, minY, maxY);
+    }
+
+    /**
+     * The same, also dropping the bullets that drifted out of the area between minX and maxX
+     */
+    public void update(float dt, float minX, float maxX, float minY, float maxY) {
+        for (int i = count - 1; i >= 0; i--) {
+            float impactY = getImpactPointY(i);
+            if (impactY < minY || impactY > maxY || x[i] + width < minX || x[i] > maxX) {
+                kill(i);
+                continue;
+            }
+
+            previousX[i] = x[i];
+            previousY[i] = y[i];
+            x[i] = x[i] + velocityX[i] * dt;
+            y[i] = y[i] + velocityY[i] * dt;
+        }
+    }
+
+    public float getX(int i) {
+        return x[i];
+    }
+
+    public float getY(int i) {
+        return y[i];
+    }
+
+    public float getPreviousX(int i) {
+        return previousX[i];
+    }
+
+    public float getPreviousY(int i) {
+        return previousY[i];
+    }
+
+    /**
+     * Draw position between the previous tick and this one
+     */
+    public float getDrawX(int i, float alpha) {
+        return previousX[i] + (x[i] - previousX[i]) * alpha;
+    }
+
+    public float getDrawY(int i, float alpha) {
+        return previousY[i] + (y[i] - previousY[i]) * alpha;
+    }
+
+    /**
+     * The leading edge of the bullet
+     */
+    public float getImpactPointY(int i) {
+        if (velocityY[i] > 0) {
+            return y[i] + height;
+        } else {
+            return y[i];
+        }
+    }
+
+    public float getWidth() {
+        return width;
+    }
+
+    public float getHeight() {
+        return height;
+    }
+
+    /**
+     * When, as a fraction of the last tick, the bullet in this slot first touched the rectangle
+     * on its way from its previous position to the current one, Hitbox.NO_HIT if it didn't
+     */
+    public float sweep(int i, float left, float top, float right, float bottom) {
+        return Hitbox.sweep(previousX[i], previousY[i], previousX[i] + width, previousY[i] + height,
+                x[i] - previousX[i], y[i] - previousY[i], left, top, right, bottom);
+    }
+
+    /**
+     * When, as a fraction of the last tick, the bullet in this slot first came within margin pixels
+     * of bullet j of the other pool, both moving at once, Hitbox.NO_HIT if it didn't
+     * Measured from the other bullet, which makes it one box sweeping past a still one
+     */
+    public float sweep(int i, BulletPool other, int j, float margin) {
+        float otherLeft = other.previousX[j] - margin;
+        float otherTop = other.previousY[j] - margin;
+        return Hitbox.sweep(previousX[i], previousY[i], previousX[i] + width, previousY[i] + height,
+                (x[i] - previousX[i]) - (other.x[j] - other.previousX[j]),
+                (y[i] - previousY[i]) - (other.y[j] - other.previousY[j]),
+                otherLeft, otherTop, other.previousX[j] + other.width + margin, other.previousY[j] + other.height + margin);
+    }
+
+    /**
+     * Everything the bullet in this slot went through this tick, written as left, top, right, bottom into out
+     */
+    public void getSweptBounds(int i, Hitbox out) {
+        out.set(Math.min(previousX[i], x[i]), Math.min(previousY[i], y[i]),
+                Math.max(previousX[i], x[i]) + width, Math.max(previousY[i], y[i]) + height);
+    }
+
+    /**
+     * Save the bullets in flight, the empty slots are left out
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeFloat(x[i]);
+            out.writeFloat(y[i]);
+            out.writeFloat(previousX[i]);
+            out.writeFloat(previousY[i]);
+            out.writeFloat(velocityX[i]);
+            out.writeFloat(velocityY[i]);
+        }
+    }
+
+    void readState(DataInput in) throws IOException {
+        int saved = in.readInt();
+        if (saved < 0 || saved > x.length) {
+            throw new IOException(saved + " saved bullets don't fit in a pool of " + x.length);
+        }
+        count = saved;
+        for (int i = 0; i < count; i++) {
+            x[i] = in.readFloat();
+            y[i] = in.readFloat();
+            previousX[i] = in.readFloat();
+            previousY[i] = in.readFloat();
+            velocityX[i] = in.readFloat();
+            velocityY[i] = in.readFloat();
+        }
+    }
+
+    /**
+     * Does the bullet in this slot overlap the rectangle
+     */
+    public boolean intersects(int i, float left, float top, float right, float bottom) {
+        return x[i] < right && left < x[i] + width && y[i] < bottom && top < y[i] + height;
+    }
+}
@@ -0,0 +1,88 @@
+package com.dev.spaceinvadersgame;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carries InputCommand values from the UI thread to the simulation thread,
+ * and GameEvents codes from the simulation thread to the audio thread.
+ * One writer and one reader, a ring of ints with atomic positions, no locks.
+ * Each command can carry the System.nanoTime() it happened at, so the reader can apply it at the right tick.
+ */
+public class CommandQueue {
+    /**
+     * Returned by poll() when there is nothing to read
+     */
+    public static final int EMPTY = -1;
+
+    private final int[] commands;
+    private final long[] times;
+    private final int mask;
+
+    /**
+     * Next slot to read and next slot to write, only ever increase
+     */
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Capacity is rounded up to a power of two
+     */
+    public CommandQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        commands = new int[size];
+        times = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Called by the writer, returns false if the queue is full
+     */
+    public boolean offer(int command) {
+        return offer(command, 0);
+    }
+
+    /**
+     * Called by the writer, the command happened at timeNanos, returns false if the queue is full
+     */
+    public boolean offer(int command, long timeNanos) {
+        long t = tail.get();
+        if (t - head.get() == commands.length) {
+            return false;
+        }
+        commands[(int) (t & mask)] = command;
+        times[(int) (t & mask)] = timeNanos;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Called by the reader, when the next command happened, Long.MAX_VALUE when nothing is waiting
+     */
+    public long peekTime() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return Long.MAX_VALUE;
+        }
+        return times[(int) (h & mask)];
+    }
+
+    /**
+     * Called by the reader, returns EMPTY when nothing is waiting
+     */
+    public int poll() {
+        long h = head.get();
+        if (h == tail.get()) {
+            return EMPTY;
+        }
+        int command = commands[(int) (h & mask)];
+        head.lazySet(h + 1);
+        return command;
+    }
+
+    /**
+     * Called by the reader, true when poll() would return EMPTY
+     */
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+}
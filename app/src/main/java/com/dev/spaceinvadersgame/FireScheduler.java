@@ -0,0 +1,159 @@
+package com.dev.spaceinvadersgame;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Decides when the invaders shoot. Instead of every invader rolling dice every tick,
+ * each column of the formation gets a precomputed time for its next shot, and only
+ * the bottom invader of the column fires. A tick is one comparison per column,
+ * the random generator is only touched when a column actually fires.
+ *
+ * Each column has two timers, both as frequent as the column has invaders:
+ * a random shot, and an aimed shot which is only taken if the player is under the column at that time.
+ * At a fire rate of 1 the average rates match the old per invader dice (1 in 2000 and 1 in 150 per tick at 60 ticks per second),
+ * later waves shoot more often.
+ */
+public class FireScheduler {
+    /**
+     * Mean time between two random shots of a single invader
+     */
+    private static final long RANDOM_FIRE_MEAN_NANOS = 2000 * 1000000000L / 60;
+
+    /**
+     * Mean time between two aimed shots of a single invader
+     */
+    private static final long AIMED_FIRE_MEAN_NANOS = 150 * 1000000000L / 60;
+
+    private final Formation formation;
+    private final GameRandom random;
+
+    /**
+     * Simulated time since the level started
+     */
+    private long now;
+
+    private long[] nextRandomFire;
+    private long[] nextAimedFire;
+
+    /**
+     * The mean waits, shorter when the wave fires faster
+     */
+    private long randomFireMean = RANDOM_FIRE_MEAN_NANOS;
+    private long aimedFireMean = AIMED_FIRE_MEAN_NANOS;
+
+    public FireScheduler(Formation formation, GameRandom random) {
+        this.formation = formation;
+        this.random = random;
+        nextRandomFire = new long[formation.getColumns()];
+        nextAimedFire = new long[formation.getColumns()];
+    }
+
+    /**
+     * Start a new level at the original fire rate, every column gets fresh timers
+     */
+    public void reset() {
+        reset(1);
+    }
+
+    /**
+     * Start a new level shooting fireRate times as often as the original game
+     * Called after the formation took the shape of the new wave
+     */
+    public void reset(float fireRate) {
+        randomFireMean = (long) (RANDOM_FIRE_MEAN_NANOS / (double) fireRate);
+        aimedFireMean = (long) (AIMED_FIRE_MEAN_NANOS / (double) fireRate);
+        if (nextRandomFire.length < formation.getColumns()) {
+            nextRandomFire = new long[formation.getColumns()];
+            nextAimedFire = new long[formation.getColumns()];
+        }
+
+        now = 0;
+        for (int column = 0; column < formation.getColumns(); column++) {
+            nextRandomFire[column] = delay(randomFireMean / formation.getRows());
+            nextAimedFire[column] = delay(aimedFireMean / formation.getRows());
+        }
+    }
+
+    /**
+     * Advance the clock and spawn the shots that are due into the pool
+     */
+    public void update(long dtNanos, float playerX, float playerLength, BulletPool bullets) {
+        now += dtNanos;
+
+        for (int column = 0; column < formation.getColumns(); column++) {
+            boolean fire = false;
+
+            if (now >= nextRandomFire[column]) {
+                int alive = formation.getColumnAliveCount(column);
+                nextRandomFire[column] = now + delay(randomFireMean / Math.max(1, alive));
+                fire = alive > 0;
+            }
+
+            if (now >= nextAimedFire[column]) {
+                int alive = formation.getColumnAliveCount(column);
+                nextAimedFire[column] = now + delay(aimedFireMean / Math.max(1, alive));
+                fire = fire || isAbove(column, playerX, playerLength);
+            }
+
+            if (fire) {
+                int slot = formation.getBottomAlive(column);
+                if (slot >= 0) {
+                    /**
+                     * When the pool is full no more shots until one completes its journey
+                     */
+                    bullets.spawn(formation.getX(slot) + formation.getInvaderWidth() / 2, formation.getY(slot), BulletPool.DEFAULT_SPEED);
+                }
+            }
+        }
+    }
+
+    /**
+     * Is the player ship under this column, partly is enough
+     */
+    private boolean isAbove(int column, float playerX, float playerLength) {
+        int slot = formation.getBottomAlive(column);
+        if (slot < 0) {
+            return false;
+        }
+        float x = formation.getX(slot);
+        float length = formation.getInvaderWidth();
+        return (playerX + playerLength > x && playerX + playerLength < x + length) || (playerX > x && playerX < x + length);
+    }
+
+    /**
+     * An exponential wait with the given mean, what rolling a die every tick amounts to
+     * StrictMath keeps the result identical on every device so replays stay in sync
+     */
+    private long delay(long meanNanos) {
+        return (long) (-StrictMath.log(1 - random.nextFloat()) * meanNanos);
+    }
+
+    /**
+     * Save the clock and every column's timers
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeLong(now);
+        for (int column = 0; column < formation.getColumns(); column++) {
+            out.writeLong(nextRandomFire[column]);
+            out.writeLong(nextAimedFire[column]);
+        }
+    }
+
+    void readState(DataInput in) throws IOException {
+        now = in.readLong();
+        for (int column = 0; column < formation.getColumns(); column++) {
+            nextRandomFire[column] = in.readLong();
+            nextAimedFire[column] = in.readLong();
+        }
+    }
+
+    public long getNextRandomFire(int column) {
+        return nextRandomFire[column];
+    }
+
+    public long getNextAimedFire(int column) {
+        return nextAimedFire[column];
+    }
+}
@@ -0,0 +1,121 @@
+package com.dev.spaceinvadersgame;
+
+/**
+ * Drives the simulation at a fixed tick rate regardless of how fast frames are drawn.
+ * Real time is accumulated in nanoseconds and paid out in whole ticks, the leftover
+ * fraction is exposed as an interpolation factor for drawing between two ticks.
+ */
+public class FixedTimestepLoop {
+    /**
+     * Ticks per second used when nothing else is asked for
+     */
+    public static final int DEFAULT_TICK_RATE = 60;
+
+    /**
+     * Never run more than this many ticks for one frame, so a long stall
+     * (GC, app switch) doesn't turn into a spiral of catch-up work
+     */
+    public static final int DEFAULT_MAX_CATCH_UP_STEPS = 5;
+
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    private final int tickRate;
+    private final long stepNanos;
+    private final float stepSeconds;
+    private final int maxCatchUpSteps;
+
+    /**
+     * Time not yet consumed by a tick
+     */
+    private long accumulator;
+    private long lastTime;
+    private boolean started;
+
+    public FixedTimestepLoop() {
+        this(DEFAULT_TICK_RATE, DEFAULT_MAX_CATCH_UP_STEPS);
+    }
+
+    public FixedTimestepLoop(int tickRate, int maxCatchUpSteps) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("tickRate must be positive");
+        }
+        if (maxCatchUpSteps <= 0) {
+            throw new IllegalArgumentException("maxCatchUpSteps must be positive");
+        }
+        this.tickRate = tickRate;
+        this.maxCatchUpSteps = maxCatchUpSteps;
+        stepNanos = NANOS_PER_SECOND / tickRate;
+        stepSeconds = 1f / tickRate;
+    }
+
+    /**
+     * Forget any accumulated time, used when the game thread (re)starts
+     */
+    public void reset(long nowNanos) {
+        lastTime = nowNanos;
+        accumulator = 0;
+        started = true;
+    }
+
+    /**
+     * Feed the current time in and get back how many ticks the simulation must run now
+     */
+    public int advance(long nowNanos) {
+        if (!started) {
+            reset(nowNanos);
+            return 0;
+        }
+
+        long elapsed = nowNanos - lastTime;
+        lastTime = nowNanos;
+        if (elapsed > 0) {
+            accumulator += elapsed;
+        }
+
+        int steps = (int) Math.min(accumulator / stepNanos, maxCatchUpSteps);
+        accumulator -= steps * stepNanos;
+
+        /**
+         * We fell too far behind, drop the backlog instead of chasing it
+         */
+        if (accumulator >= stepNanos) {
+            accumulator = accumulator % stepNanos;
+        }
+
+        return steps;
+    }
+
+    /**
+     * The moment of real time the step-th of the steps the last advance() asked for catches up to, counted from 0
+     * Input that happened up to then belongs to that tick
+     */
+    public long getStepTime(int step, int steps) {
+        return lastTime - accumulator - (steps - 1 - step) * stepNanos;
+    }
+
+    /**
+     * How far we are between the last tick and the next one, from 0 to 1
+     */
+    public float getAlpha() {
+        return (float) accumulator / stepNanos;
+    }
+
+    /**
+     * How long until the next tick is due, counted from the last time passed to advance()
+     */
+    public long getNanosUntilNextStep() {
+        return stepNanos - accumulator;
+    }
+
+    public float getStepSeconds() {
+        return stepSeconds;
+    }
+
+    public long getStepNanos() {
+        return stepNanos;
+    }
+
+    public int getTickRate() {
+        return tickRate;
+    }
+}
@@ -0,0 +1,303 @@
+package com.dev.spaceinvadersgame;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The invader army moves as one block, so its movement is kept here once
+ * instead of in every invader: a shared offset and speed, plus a bitmask of
+ * the slots still alive. An invader's position is its slot in the grid plus the offset.
+ *
+ * Slots are numbered column by column, slot = column * rows + row,
+ * the same order GameWorld fills its invaders array in.
+ * Each wave may bring a different number of columns and rows, the storage grows to the biggest one seen.
+ */
+public class Formation {
+    public static final int LEFT = -1;
+    public static final int RIGHT = 1;
+
+    private int columns;
+    private int rows;
+
+    /**
+     * Size of one invader and the distance between two slots
+     */
+    private float invaderWidth;
+    private float invaderHeight;
+    private float slotWidth;
+    private float slotHeight;
+
+    /**
+     * Where the whole formation is, now and at the previous tick
+     */
+    private float offsetX;
+    private float offsetY;
+    private float previousOffsetX;
+    private float previousOffsetY;
+
+    /**
+     * Pixels per second and which way
+     */
+    private float speed;
+    private int direction;
+
+    /**
+     * Speed at the start of the wave, and how much faster after every drop
+     */
+    private float startSpeed = Wave.CLASSIC.speed;
+    private float speedUp = Wave.CLASSIC.speedUp;
+
+    /**
+     * The slots whose invader is still alive
+     */
+    private final AliveSet alive;
+
+    /**
+     * How many invaders are alive in each column and each row, to find the edges and the bottom of the formation
+     */
+    private int[] columnAlive;
+    private int[] rowAlive;
+
+    public Formation(int columns, int rows) {
+        this.columns = columns;
+        this.rows = rows;
+        alive = new AliveSet(columns * rows);
+        columnAlive = new int[columns];
+        rowAlive = new int[rows];
+    }
+
+    /**
+     * Take the shape and speed of a wave and start it
+     */
+    public void reset(Wave wave, int screenX, int screenY) {
+        columns = wave.columns;
+        rows = wave.rows;
+        alive.ensureCapacity(columns * rows);
+        if (columnAlive.length < columns) {
+            columnAlive = new int[columns];
+        }
+        if (rowAlive.length < rows) {
+            rowAlive = new int[rows];
+        }
+        startSpeed = wave.speed;
+        speedUp = wave.speedUp;
+        reset(screenX, screenY);
+    }
+
+    /**
+     * Back to the top left corner, every invader alive and slow
+     */
+    public void reset(int screenX, int screenY) {
+        invaderWidth = screenX / 20;
+        invaderHeight = screenY / 20;
+
+        int padding = screenX / 25;
+        slotWidth = invaderWidth + padding;
+        slotHeight = invaderWidth + padding / 4;
+
+        offsetX = 0;
+        offsetY = 0;
+        previousOffsetX = 0;
+        previousOffsetY = 0;
+
+        direction = RIGHT;
+
+        /**
+         * How fast is the formation in pixels per second
+         */
+        speed = startSpeed;
+
+        alive.fill(columns * rows);
+        for (int column = 0; column < columns; column++) {
+            columnAlive[column] = rows;
+        }
+        for (int row = 0; row < rows; row++) {
+            rowAlive[row] = columns;
+        }
+    }
+
+    public void update(float dt) {
+        previousOffsetX = offsetX;
+        previousOffsetY = offsetY;
+        offsetX = offsetX + direction * speed * dt;
+    }
+
+    /**
+     * Has the leftmost or rightmost living column gone past a side of the screen
+     */
+    public boolean isTouchingEdge(int screenX) {
+        int left = 0;
+        while (left < columns && columnAlive[left] == 0) {
+            left++;
+        }
+        if (left == columns) {
+            return false;
+        }
+        int right = columns - 1;
+        while (columnAlive[right] == 0) {
+            right--;
+        }
+        return left * slotWidth + offsetX < 0 || right * slotWidth + offsetX > screenX - invaderWidth;
+    }
+
+    /**
+     * Has the lowest living row come down past groundY
+     */
+    public boolean isTouchingGround(float groundY) {
+        int bottom = rows - 1;
+        while (bottom >= 0 && rowAlive[bottom] == 0) {
+            bottom--;
+        }
+        return bottom >= 0 && bottom * slotHeight + offsetY + invaderHeight > groundY;
+    }
+
+    /**
+     * Move down one invader height, change direction and speed up
+     */
+    public void dropDownAndReverse() {
+        direction = -direction;
+        offsetY = offsetY + invaderHeight;
+        speed = speed * speedUp;
+    }
+
+    public boolean isAlive(int slot) {
+        return alive.get(slot);
+    }
+
+    public void kill(int slot) {
+        if (alive.clear(slot)) {
+            columnAlive[slot / rows]--;
+            rowAlive[slot % rows]--;
+        }
+    }
+
+    public int getColumnAliveCount(int column) {
+        return columnAlive[column];
+    }
+
+    /**
+     * The lowest living invader of a column, the only one with a clear shot, -1 if the column is empty
+     */
+    public int getBottomAlive(int column) {
+        if (columnAlive[column] == 0) {
+            return -1;
+        }
+        int slot = column * rows + rows - 1;
+        while (!alive.get(slot)) {
+            slot--;
+        }
+        return slot;
+    }
+
+    /**
+     * The first living slot at or after from, -1 once they are all done
+     */
+    public int nextAlive(int from) {
+        return alive.nextAlive(from);
+    }
+
+    /**
+     * How many invaders are left
+     */
+    public int getAliveCount() {
+        return alive.count();
+    }
+
+    /**
+     * Collect the living slots whose invader overlaps the rectangle
+     * Only the few slots under the rectangle are looked at, returns how many were written to out
+     */
+    public int query(float left, float top, float right, float bottom, int[] out) {
+        int firstColumn = Math.max(0, (int) Math.ceil((left - offsetX - invaderWidth) / slotWidth));
+        int lastColumn = Math.min(columns - 1, (int) Math.floor((right - offsetX) / slotWidth));
+        int firstRow = Math.max(0, (int) Math.ceil((top - offsetY - invaderHeight) / slotHeight));
+        int lastRow = Math.min(rows - 1, (int) Math.floor((bottom - offsetY) / slotHeight));
+
+        int found = 0;
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                int slot = column * rows + row;
+                if (isAlive(slot)) {
+                    out[found++] = slot;
+                }
+            }
+        }
+        return found;
+    }
+
+    public float getX(int slot) {
+        return slot / rows * slotWidth + offsetX;
+    }
+
+    public float getY(int slot) {
+        return slot % rows * slotHeight + offsetY;
+    }
+
+    /**
+     * Draw position between the previous tick and this one
+     */
+    public float getDrawX(int slot, float alpha) {
+        return slot / rows * slotWidth + previousOffsetX + (offsetX - previousOffsetX) * alpha;
+    }
+
+    public float getDrawY(int slot, float alpha) {
+        return slot % rows * slotHeight + previousOffsetY + (offsetY - previousOffsetY) * alpha;
+    }
+
+    public float getInvaderWidth() {
+        return invaderWidth;
+    }
+
+    public float getInvaderHeight() {
+        return invaderHeight;
+    }
+
+    /**
+     * Save where the formation is, how it moves and who is left
+     * The sizes come from the screen and are rebuilt by reset()
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeFloat(offsetX);
+        out.writeFloat(offsetY);
+        out.writeFloat(previousOffsetX);
+        out.writeFloat(previousOffsetY);
+        out.writeFloat(speed);
+        out.writeInt(direction);
+        alive.writeState(out);
+    }
+
+    /**
+     * Restore what writeState() saved, after reset() laid out the slots for the same screen
+     */
+    void readState(DataInput in) throws IOException {
+        offsetX = in.readFloat();
+        offsetY = in.readFloat();
+        previousOffsetX = in.readFloat();
+        previousOffsetY = in.readFloat();
+        speed = in.readFloat();
+        direction = in.readInt();
+        alive.readState(in);
+
+        for (int row = 0; row < rows; row++) {
+            rowAlive[row] = 0;
+        }
+        for (int column = 0; column < columns; column++) {
+            columnAlive[column] = 0;
+            for (int row = 0; row < rows; row++) {
+                if (alive.get(column * rows + row)) {
+                    columnAlive[column]++;
+                    rowAlive[row]++;
+                }
+            }
+        }
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,112 @@
+package com.dev.spaceinvadersgame;
+
+/**
+ * Keeps the renderer inside its frame budget. It is told what every frame cost,
+ * smooths that into an average, and answers two questions:
+ * how long to wait before the next frame, and how much optional work to do.
+ *
+ * The quality level only drops when frames have been too expensive for a while
+ * and only comes back once they are well under budget again,
+ * so one slow frame or one quick one doesn't make the game flicker between levels.
+ *
+ * Fed and read by the render thread, getLevel() may be read from any thread.
+ */
+public class FrameGovernor {
+    /**
+     * Everything is drawn and played
+     */
+    public static final int FULL = 0;
+
+    /**
+     * No profiler overlay, the menace sounds play half as often
+     */
+    public static final int REDUCED = 1;
+
+    /**
+     * As REDUCED, and frames are drawn at half the target rate
+     */
+    public static final int LOW = 2;
+
+    /**
+     * Degrade once the average frame costs more than this share of the budget, recover under the second
+     */
+    private static final float DEGRADE_LOAD = 0.85f;
+    private static final float RECOVER_LOAD = 0.5f;
+
+    /**
+     * How many frames a level is kept at least before moving again, about a second
+     */
+    private static final int HOLD_FRAMES = 60;
+
+    /**
+     * Weight of the newest frame in the average
+     */
+    private static final float SMOOTHING = 0.1f;
+
+    private final long targetFrameNanos;
+
+    private float averageCostNanos;
+    private int framesAtLevel;
+    private volatile int level = FULL;
+
+    public FrameGovernor(int targetFrameRate) {
+        if (targetFrameRate <= 0) {
+            throw new IllegalArgumentException("targetFrameRate must be positive");
+        }
+        targetFrameNanos = 1000000000L / targetFrameRate;
+    }
+
+    /**
+     * Report the work one frame took, not counting time spent waiting for the display
+     */
+    public void onFrame(long costNanos) {
+        averageCostNanos = averageCostNanos == 0 ? costNanos : averageCostNanos + (costNanos - averageCostNanos) * SMOOTHING;
+        framesAtLevel++;
+        if (framesAtLevel < HOLD_FRAMES) {
+            return;
+        }
+
+        float load = averageCostNanos / targetFrameNanos;
+        if (load > DEGRADE_LOAD && level < LOW) {
+            level++;
+            framesAtLevel = 0;
+        } else if (load < RECOVER_LOAD && level > FULL) {
+            level--;
+            framesAtLevel = 0;
+        }
+    }
+
+    /**
+     * How long to wait after a frame that started at frameStartNanos before drawing the next one
+     */
+    public long getNanosUntilNextFrame(long frameStartNanos, long nowNanos) {
+        return Math.max(0, getFrameIntervalNanos() - (nowNanos - frameStartNanos));
+    }
+
+    /**
+     * Time between two frames at the current level
+     */
+    public long getFrameIntervalNanos() {
+        return level >= LOW ? targetFrameNanos * 2 : targetFrameNanos;
+    }
+
+    /**
+     * One of FULL, REDUCED or LOW
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    public long getAverageCostNanos() {
+        return (long) averageCostNanos;
+    }
+
+    /**
+     * Start over at full quality, used when the game resumes
+     */
+    public void reset() {
+        averageCostNanos = 0;
+        framesAtLevel = 0;
+        level = FULL;
+    }
+}
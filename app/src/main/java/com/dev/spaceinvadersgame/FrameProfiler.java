@@ -0,0 +1,128 @@
+package com.dev.spaceinvadersgame;
+
+import java.util.Arrays;
+
+/**
+ * Records how long each part of a frame takes, in nanoseconds.
+ * Times are summed per phase during a frame, then endFrame() stores them
+ * in a ring buffer holding the last frames. Everything is allocated up front
+ * so recording costs a couple of System.nanoTime() calls and no garbage.
+ */
+public class FrameProfiler {
+    /**
+     * The phases of a frame
+     */
+    public static final int FRAME = 0;
+    public static final int UPDATE = 1;
+    public static final int MOVE = 2;
+    public static final int BULLETS = 3;
+    public static final int BULLETS_VS_BULLETS = 4;
+    public static final int PLAYER_BULLETS_VS_INVADERS = 5;
+    public static final int INVADER_BULLETS_VS_SHELTERS = 6;
+    public static final int PLAYER_BULLETS_VS_SHELTERS = 7;
+    public static final int INVADER_BULLETS_VS_PLAYER = 8;
+    public static final int DRAW = 9;
+    public static final int LOCK_CANVAS = 10;
+    public static final int UNLOCK_AND_POST = 11;
+    public static final int PHASE_COUNT = 12;
+
+    private static final String[] NAMES = {
+            "frame", "update", "move", "bullets", "shots/bullets", "shots/invaders", "bullets/shelters",
+            "shots/shelters", "bullets/player", "draw", "lockCanvas", "unlockAndPost"
+    };
+
+    /**
+     * samples[phase][frame], a ring of the last frames
+     */
+    private final long[][] samples;
+    private final long[] current = new long[PHASE_COUNT];
+    private int head;
+    private int count;
+
+    /**
+     * Sorted copy of one phase, used to read percentiles
+     */
+    private final long[] scratch;
+
+    public FrameProfiler(int frames) {
+        samples = new long[PHASE_COUNT][frames];
+        scratch = new long[frames];
+    }
+
+    public static String getName(int phase) {
+        return NAMES[phase];
+    }
+
+    public void add(int phase, long nanos) {
+        current[phase] += nanos;
+    }
+
+    /**
+     * Charge the time since the given nanoTime to a phase and return the current nanoTime
+     * so consecutive phases can be chained
+     */
+    public long lap(int phase, long since) {
+        long now = System.nanoTime();
+        current[phase] += now - since;
+        return now;
+    }
+
+    /**
+     * Store the frame that just finished and start a new one
+     */
+    public void endFrame() {
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            samples[phase][head] = current[phase];
+            current[phase] = 0;
+        }
+        head = (head + 1) % scratch.length;
+        if (count < scratch.length) {
+            count++;
+        }
+    }
+
+    /**
+     * How many frames the statistics are based on
+     */
+    public int getFrameCount() {
+        return count;
+    }
+
+    /**
+     * The time under which the given fraction (0 to 1) of recorded frames fall for that phase
+     * Synchronized because the overlay and the session stats can both ask, from different threads,
+     * and they share the sorting buffer
+     */
+    public synchronized long percentile(int phase, double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        System.arraycopy(samples[phase], 0, scratch, 0, count);
+        Arrays.sort(scratch, 0, count);
+        int index = (int) Math.ceil(fraction * count) - 1;
+        return scratch[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    public long max(int phase) {
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, samples[phase][i]);
+        }
+        return max;
+    }
+
+    public void clear() {
+        Arrays.fill(current, 0);
+        head = 0;
+        count = 0;
+    }
+
+    /**
+     * One line of p50/p99/max in microseconds, for the overlay and the log
+     */
+    public String summary(int phase) {
+        return NAMES[phase] + " p50 " + percentile(phase, 0.5) / 1000
+                + " p99 " + percentile(phase, 0.99) / 1000
+                + " max " + max(phase) / 1000 + " us";
+    }
+}
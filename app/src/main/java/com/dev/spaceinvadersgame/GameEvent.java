@@ -0,0 +1,65 @@
+package com.dev.spaceinvadersgame;
+
+/**
+ * One thing that happened in the game: its type, one of the GameEvents codes,
+ * the tick it happened at and what it happened to.
+ * Events are owned and recycled by GameEvents, a listener must not keep one after onEvent() returns.
+ */
+public class GameEvent {
+    /**
+     * One of the GameEvents codes
+     */
+    int type;
+
+    /**
+     * The world tick it happened at
+     */
+    long tick;
+
+    /**
+     * What it happened to: the formation slot of a killed invader, the number of a shelter that was hit, -1 otherwise
+     */
+    int id;
+
+    /**
+     * Where it happened, the centre of whatever was hit
+     */
+    float x;
+    float y;
+
+    GameEvent set(int type, long tick) {
+        this.type = type;
+        this.tick = tick;
+        id = -1;
+        x = 0;
+        y = 0;
+        return this;
+    }
+
+    GameEvent at(int id, float x, float y) {
+        this.id = id;
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+}
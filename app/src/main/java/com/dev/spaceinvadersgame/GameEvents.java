@@ -0,0 +1,134 @@
+package com.dev.spaceinvadersgame;
+
+import java.util.Arrays;
+
+/**
+ * The bus the simulation reports what happened on. Collision phases publish events,
+ * the world applies its rules to them at the end of the tick, and once per frame the owner
+ * drains the rest to the listeners (sounds, stats, anything else) in the order they happened.
+ * Adding a listener never means touching the simulation.
+ *
+ * Events are GameEvent objects created once and reused: a ring of them is filled in turn.
+ * If the listeners fall so far behind that the ring wraps, the oldest events are lost and counted.
+ * Only the simulation thread publishes and drains.
+ */
+public class GameEvents {
+    public static final int SHOT_FIRED = 0;
+    public static final int INVADER_KILLED = 1;
+    public static final int SHELTER_HIT = 2;
+    public static final int PLAYER_HIT = 3;
+    public static final int WAVE_CLEARED = 4;
+    public static final int GAME_OVER = 5;
+    public static final int MENACE_UH = 6;
+    public static final int MENACE_OH = 7;
+    public static final int BULLETS_INTERCEPTED = 8;
+
+    /**
+     * Told about every event when the bus is drained
+     */
+    public interface Listener {
+        void onEvent(GameEvent event);
+    }
+
+    private final GameEvent[] ring;
+    private final int mask;
+
+    /**
+     * How many events were ever published, and the first one not drained yet
+     */
+    private long published;
+    private long drained;
+    private long dropped;
+
+    private Listener[] listeners = new Listener[0];
+
+    /**
+     * Capacity is rounded up to a power of two
+     */
+    public GameEvents(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        ring = new GameEvent[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new GameEvent();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Add a listener, done while setting up rather than while playing
+     */
+    public void subscribe(Listener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    /**
+     * Take the next event of the ring, filled with the type and tick, for the caller to complete
+     */
+    public GameEvent publish(int type, long tick) {
+        if (published - drained == ring.length) {
+            drained++;
+            dropped++;
+        }
+        return ring[(int) (published++ & mask)].set(type, tick);
+    }
+
+    /**
+     * Hand every pending event to every listener, oldest first, then forget them
+     */
+    public void drain() {
+        while (drained < published) {
+            GameEvent event = ring[(int) (drained & mask)];
+            for (Listener listener : listeners) {
+                listener.onEvent(event);
+            }
+            drained++;
+        }
+    }
+
+    /**
+     * Forget the pending events without telling anyone
+     */
+    public void clear() {
+        drained = published;
+    }
+
+    /**
+     * How many events are pending
+     */
+    public int size() {
+        return (int) (published - drained);
+    }
+
+    /**
+     * The i-th pending event, oldest first
+     */
+    public GameEvent get(int i) {
+        return ring[(int) ((drained + i) & mask)];
+    }
+
+    /**
+     * How many events were ever published, marks where the events of a tick start
+     */
+    public long getPublished() {
+        return published;
+    }
+
+    /**
+     * The event published as number sequence, valid while it is one of the last getCapacity() published
+     */
+    GameEvent getBySequence(long sequence) {
+        return ring[(int) (sequence & mask)];
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * Events lost because nobody drained the bus in time
+     */
+    public long getDropped() {
+        return dropped;
+    }
+}
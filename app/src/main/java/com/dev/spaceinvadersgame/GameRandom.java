@@ -0,0 +1,56 @@
+package com.dev.spaceinvadersgame;
+
+/**
+ * A small, fast and seedable random number generator (xorshift64*).
+ * The whole game draws from one instance so a seed replays exactly the same game,
+ * and unlike java.util.Random there is no synchronisation on every call.
+ */
+public class GameRandom {
+    private long state;
+
+    public GameRandom(long seed) {
+        setSeed(seed);
+    }
+
+    public void setSeed(long seed) {
+        /**
+         * Spread the seed bits with a splitmix64 step, xorshift must never hold zero
+         */
+        long z = seed + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        state = z ^ (z >>> 31);
+        if (state == 0) {
+            state = 0x9E3779B97F4A7C15L;
+        }
+    }
+
+    /**
+     * The raw generator state, enough to continue the exact same sequence later
+     */
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state == 0 ? 0x9E3779B97F4A7C15L : state;
+    }
+
+    public long nextLong() {
+        state ^= state >>> 12;
+        state ^= state << 25;
+        state ^= state >>> 27;
+        return state * 0x2545F4914F6CDD1DL;
+    }
+
+    /**
+     * A number from 0 (inclusive) to bound (exclusive)
+     */
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    public float nextFloat() {
+        return (nextLong() >>> 40) * (1f / (1 << 24));
+    }
+}
@@ -0,0 +1,910 @@
+package com.dev.spaceinvadersgame;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * The whole game without any Android in it: the ship, the invaders, the shelters,
+ * the bullets, the score and the rules that tie them together.
+ * SpaceInvadersView feeds it input commands and time, then draws it and drains the events it publishes.
+ * The same seed and the same commands always produce the same game,
+ * so it can also be run headless from tests and benchmarks.
+ *
+ * Each level plays the Wave a WaveGenerator hands out for it.
+ * Objects are only created when a wave needs more of them than any before,
+ * otherwise a level re-initialises them in place so a reset allocates nothing.
+ */
+public class GameWorld {
+    private static final float NANOS_PER_SECOND = 1000000000f;
+
+    /**
+     * Save states start with these, a different version is refused rather than misread
+     */
+    static final int STATE_MAGIC = 0x53495356;
+    static final int STATE_VERSION = 5;
+
+    /**
+     * Room for the player's bullets, enough for the busiest Weapon
+     */
+    static final int PLAYER_BULLETS = 256;
+
+    /**
+     * The size of screen in pixels
+     */
+    final int screenX;
+    final int screenY;
+
+    /**
+     * The player ship
+     */
+    PlayerShip playerShip;
+
+    /**
+     * The player's bullets, fired by the current level's weapon
+     */
+    final BulletPool playerBullets;
+
+    /**
+     * The gun of the current level, and the simulated time left before it can shoot again
+     */
+    private Weapon weapon;
+    private long reloadNanos;
+
+    /**
+     * Is a finger held on the fire zone, automatic weapons keep shooting until it lifts
+     */
+    private boolean triggerHeld;
+
+    /**
+     * The invaders bullets
+     */
+    final BulletPool invadersBullets;
+
+    /**
+     * One view per formation slot, as many as the biggest wave so far
+     */
+    Invader[] invaders = new Invader[0];
+    int numInvaders = 0;
+
+    /**
+     * Moves all the invaders at once and knows which ones are still alive
+     */
+    final Formation formation;
+
+    /**
+     * Decides which column of invaders shoots and when
+     */
+    final FireScheduler fireScheduler;
+
+    /**
+     * The player's shelters, one bit per cell still standing
+     */
+    final ShelterMask shelters = new ShelterMask();
+
+    /**
+     * Where the levels come from, the current one and what it looks like
+     */
+    private final WaveGenerator waves;
+    private int level;
+    private Wave wave;
+
+    /**
+     * Goes up every time a crater is blown or the shelters are rebuilt,
+     * so the renderer knows when its cached picture of them is out of date
+     */
+    private int shelterVersion;
+
+    /**
+     * Broad phase for bullets stopping each other, rebuilt from the invader bullets on every tick that has both kinds
+     * An invader bullet that was hit is removed from it, which also marks it to be dropped once every player bullet was tested
+     */
+    final SpatialGrid bulletGrid;
+
+    /**
+     * How close two bullets must pass to knock each other out, they are only a pixel wide
+     */
+    private final float interceptMargin;
+
+    /**
+     * Filled by the collision grids with the ids worth testing
+     */
+    private int[] candidates = new int[0];
+    private final int[] bulletCandidates;
+
+    /**
+     * Scratch rectangle for the area a bullet swept
+     */
+    private final Hitbox swept = new Hitbox();
+
+    /**
+     * Every random decision of the game comes from here
+     */
+    private final GameRandom random;
+
+    /**
+     * What happened since the owner last drained the bus
+     */
+    private final GameEvents events;
+
+    /**
+     * Where the events of the current tick start on the bus
+     */
+    private long tickEvents;
+
+    /**
+     * Points for every invader shot down
+     */
+    static final int INVADER_POINTS = 10;
+
+    /**
+     * Game is paused at the start
+     */
+    private boolean paused = true;
+
+    /**
+     * Invaders reaching the ship end the game
+     * Only the benchmarks turn it off, their swarms are bigger than the screen and would land on the first tick
+     */
+    boolean invadersCanLand = true;
+
+    /**
+     * The score
+     */
+    private int score = 0;
+
+    /**
+     * The score the last game ended with, before it was reset
+     */
+    private int finalScore;
+
+    /**
+     * Lives
+     */
+    private int lives = 5;
+
+    /**
+     * How menacing should the sound be, in milliseconds between two sounds
+     */
+    private long menaceInterval = 1500;
+
+    /**
+     * Which menace sound should play next, also picks the invader animation frame
+     */
+    private boolean uhOrOh;
+
+    /**
+     * Simulated time since the last menacing sound
+     */
+    private long nanosSinceMenace;
+
+    /**
+     * How many times update() was called, paused or not
+     * Recorded input is stamped with it
+     */
+    private long tick;
+
+    /**
+     * When the last hit found on a bullet's path happened, as a fraction of the tick
+     */
+    private float hitTime;
+
+    /**
+     * Times each phase of a tick when set
+     */
+    private FrameProfiler profiler;
+
+    public GameWorld(int screenX, int screenY, int maxInvaderBullets, long seed) {
+        this(screenX, screenY, maxInvaderBullets, seed, WaveGenerator.standard());
+    }
+
+    /**
+     * A world that plays the same custom invader formation every level, used to stress the game with big swarms
+     */
+    public GameWorld(int screenX, int screenY, int maxInvaderBullets, long seed, int invaderColumns, int invaderRows) {
+        this(screenX, screenY, maxInvaderBullets, seed, WaveGenerator.fixed(Wave.CLASSIC.withInvaders(invaderColumns, invaderRows)));
+    }
+
+    public GameWorld(int screenX, int screenY, int maxInvaderBullets, long seed, WaveGenerator waves) {
+        this.screenX = screenX;
+        this.screenY = screenY;
+        this.waves = waves;
+        wave = waves.get(0);
+        formation = new Formation(wave.columns, wave.rows);
+
+        random = new GameRandom(seed);
+        fireScheduler = new FireScheduler(formation, random);
+
+        /**
+         * The invaders bullets live in one pool for the whole game
+         */
+        invadersBullets = new BulletPool(maxInvaderBullets, screenY);
+        playerBullets = new BulletPool(PLAYER_BULLETS, screenY);
+
+        /**
+         * A tick can't report more than a hit and a crater per bullet, the rules must see all of them
+         */
+        events = new GameEvents(Math.max(256, 2 * (maxInvaderBullets + PLAYER_BULLETS) + 64));
+
+        /**
+         * Invaders and shelters don't need a broad phase, the formation and the mask find them from where the bullet is
+         * Bullets do, their cells are the size of one invader
+         */
+        bulletGrid = new SpatialGrid(screenX, screenY, screenX / 20, screenY / 20, maxInvaderBullets);
+        bulletCandidates = new int[maxInvaderBullets];
+        interceptMargin = screenX / 100f;
+
+        prepareLevel();
+    }
+
+    /**
+     * Put every object back to the start of the current level
+     * Objects are only created when the wave needs more than there are, the rest are reset
+     */
+    public void prepareLevel() {
+        wave = waves.get(level);
+        ensureCapacity(wave.getInvaderCount());
+
+        /**
+         * The player space ship
+         */
+        if (playerShip == null) {
+            playerShip = new PlayerShip(screenX, screenY);
+        } else {
+            playerShip.reset(screenX, screenY);
+        }
+
+        /**
+         * Hand out the level's gun, no bullets in flight at the start of a level
+         */
+        weapon = wave.weapon;
+        reloadNanos = 0;
+        playerBullets.clear();
+        invadersBullets.clear();
+
+        /**
+         * Build an army of invaders
+         */
+        formation.reset(wave, screenX, screenY);
+        numInvaders = formation.getColumns() * formation.getRows();
+        fireScheduler.reset(wave.fireRate);
+        for (int slot = 0; slot < numInvaders; slot++) {
+            if (invaders[slot] == null) {
+                invaders[slot] = new Invader(formation, slot);
+            }
+        }
+
+        /**
+         * Build the shelters
+         */
+        shelters.reset(wave, screenX, screenY);
+        shelterVersion++;
+
+        /**
+         * Reset the menace level
+         */
+        menaceInterval = 1000;
+    }
+
+    /**
+     * Grow the storage to hold a wave this big, nothing happens when it already does
+     */
+    private void ensureCapacity(int invaderCount) {
+        if (invaders.length < invaderCount) {
+            invaders = Arrays.copyOf(invaders, invaderCount);
+            candidates = new int[invaderCount];
+        }
+    }
+
+    /**
+     * Apply one of the InputCommand values
+     */
+    public void handleCommand(int command) {
+        switch (command) {
+            case InputCommand.START:
+                paused = false;
+                break;
+
+            case InputCommand.MOVE_LEFT:
+                playerShip.setMovementsState(playerShip.LEFT);
+                break;
+
+            case InputCommand.MOVE_RIGHT:
+                playerShip.setMovementsState(playerShip.RIGHT);
+                break;
+
+            case InputCommand.STOP:
+                playerShip.setMovementsState(playerShip.STOPPED);
+                break;
+
+            case InputCommand.FIRE:
+                fire();
+                break;
+
+            case InputCommand.HOLD_FIRE:
+                triggerHeld = true;
+                fire();
+                break;
+
+            case InputCommand.RELEASE_FIRE:
+                triggerHeld = false;
+                break;
+        }
+    }
+
+    /**
+     * Shoot the weapon if it is loaded
+     */
+    private void fire() {
+        // Shots fired
+        if (reloadNanos <= 0) {
+            float x = playerShip.getX() + playerShip.getLength() / 2;
+            int shots = weapon.fire(playerBullets, x, screenY);
+            for (int shot = 0; shot < shots; shot++) {
+                events.publish(GameEvents.SHOT_FIRED, tick).at(-1, x, screenY);
+            }
+            if (shots > 0) {
+                reloadNanos = weapon.cooldownNanos;
+            }
+        }
+    }
+
+    /**
+     * Advance the game by dtNanos of simulated time
+     * Nothing moves while the game is paused
+     */
+    public void update(long dtNanos) {
+        tick++;
+        if (paused) {
+            return;
+        }
+
+        float dt = dtNanos / NANOS_PER_SECOND;
+        long start = profiler != null ? System.nanoTime() : 0;
+        long time = start;
+        tickEvents = events.getPublished();
+        reloadNanos = Math.max(0, reloadNanos - dtNanos);
+        if (triggerHeld && weapon.isAutomatic()) {
+            fire();
+        }
+
+        moveShipAndInvaders(dt);
+        fireInvaderBullets(dtNanos);
+        time = lap(FrameProfiler.MOVE, time);
+        moveBullets(dt);
+        time = lap(FrameProfiler.BULLETS, time);
+        collideBulletsWithBullets();
+        time = lap(FrameProfiler.BULLETS_VS_BULLETS, time);
+        collidePlayerBulletsWithInvaders();
+        time = lap(FrameProfiler.PLAYER_BULLETS_VS_INVADERS, time);
+        collideInvaderBulletsWithShelters();
+        time = lap(FrameProfiler.INVADER_BULLETS_VS_SHELTERS, time);
+        collidePlayerBulletsWithShelters();
+        time = lap(FrameProfiler.PLAYER_BULLETS_VS_SHELTERS, time);
+        collideInvaderBulletsWithPlayer();
+        time = lap(FrameProfiler.INVADER_BULLETS_VS_PLAYER, time);
+        applyRules();
+        updateMenace(dtNanos);
+
+        if (profiler != null) {
+            profiler.lap(FrameProfiler.UPDATE, start);
+        }
+    }
+
+    /**
+     * Record a phase if someone is profiling
+     */
+    private long lap(int phase, long since) {
+        if (profiler == null) {
+            return 0;
+        }
+        return profiler.lap(phase, since);
+    }
+
+    /**
+     * Start or stop (null) timing the phases of update()
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Move the ship and the invaders
+     */
+    void moveShipAndInvaders(float dt) {
+        /**
+         * Move the player's ship
+         */
+        playerShip.update(dt);
+
+        /**
+         * Move the whole formation at once
+         */
+        formation.update(dt);
+
+        /**
+         * Did the outermost living columns bump into the edge of the screen
+         */
+        if (formation.isTouchingEdge(screenX)) {
+            /**
+             * Move all the invaders down and change direction
+             */
+            formation.dropDownAndReverse();
+
+            /**
+             * Have the invaders landed, the lowest living row reached the ship
+             * The game is lost whatever the lives, applyRules() ends it
+             */
+            if (invadersCanLand && formation.isTouchingGround(playerShip.getRect().top)) {
+                events.publish(GameEvents.GAME_OVER, tick);
+            }
+
+            /**
+             * Increase the menace level by making the sounds more frequent
+             */
+            menaceInterval = menaceInterval - 80;
+        }
+    }
+
+    /**
+     * Let the columns whose turn has come shoot
+     */
+    void fireInvaderBullets(long dtNanos) {
+        fireScheduler.update(dtNanos, playerShip.getX(), playerShip.getLength(), invadersBullets);
+    }
+
+    /**
+     * Move every bullet and drop the ones that left the screen
+     */
+    void moveBullets(float dt) {
+        /**
+         * Update all the invaders bullets in flight
+         * The ones that hit the bottom of the screen are removed
+         */
+        invadersBullets.update(dt, Float.NEGATIVE_INFINITY, screenY);
+
+        /**
+         * Update the players bullets, the ones that left through the top or a side are removed
+         * A bullet is only dropped once it was already out at the previous tick,
+         * so the path it just swept still gets tested for hits
+         */
+        playerBullets.update(dt, 0, screenX, 0, Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Have player bullets and invader bullets knocked each other out
+     * Each player bullet stops the first invader bullet it met this tick, both moving, and both are gone
+     * Costs nothing while either side has no bullet in the air, otherwise one grid insert per invader bullet
+     * and one query per player bullet, however many there are
+     */
+    void collideBulletsWithBullets() {
+        if (playerBullets.size() == 0 || invadersBullets.size() == 0) {
+            return;
+        }
+
+        bulletGrid.clear();
+        for (int j = 0; j < invadersBullets.size(); j++) {
+            invadersBullets.getSweptBounds(j, swept);
+            bulletGrid.insert(j, swept.left, swept.top, swept.right, swept.bottom);
+        }
+
+        boolean intercepted = false;
+        for (int i = playerBullets.size() - 1; i >= 0; i--) {
+            playerBullets.getSweptBounds(i, swept);
+            int found = bulletGrid.query(swept.left - interceptMargin, swept.top - interceptMargin,
+                    swept.right + interceptMargin, swept.bottom + interceptMargin, bulletCandidates);
+
+            int first = -1;
+            float firstTime = 2;
+            for (int c = 0; c < found; c++) {
+                int j = bulletCandidates[c];
+                float time = playerBullets.sweep(i, invadersBullets, j, interceptMargin);
+                if (time != Hitbox.NO_HIT && time < firstTime) {
+                    first = j;
+                    firstTime = time;
+                }
+            }
+
+            if (first >= 0) {
+                /**
+                 * Out of the grid so no other player bullet can stop it again
+                 */
+                bulletGrid.remove(first);
+                events.publish(GameEvents.BULLETS_INTERCEPTED, tick).at(-1, playerBullets.getX(i), playerBullets.getY(i));
+                playerBullets.kill(i);
+                intercepted = true;
+            }
+        }
+
+        /**
+         * The invader bullets can only go now, removing one moves another into its slot
+         */
+        if (intercepted) {
+            for (int j = invadersBullets.size() - 1; j >= 0; j--) {
+                if (!bulletGrid.contains(j)) {
+                    invadersBullets.kill(j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Have the player's bullets hit an invader
+     * Bullets are tested along the whole path they covered this tick, not just where they ended up,
+     * so a long tick can't carry them through a target
+     */
+    void collidePlayerBulletsWithInvaders() {
+        for (int b = playerBullets.size() - 1; b >= 0; b--) {
+            int i = playerBulletFirstInvader(b);
+            if (i >= 0) {
+                /**
+                 * A shelter hit earlier on the way took the shot, the shelter pass deals with it
+                 */
+                float shelterTime = shelters.sweep(playerBullets, b);
+                if (shelterTime != Hitbox.NO_HIT && shelterTime < hitTime) {
+                    continue;
+                }
+
+                Hitbox rect = invaders[i].getRect();
+                invaders[i].setInvisible();
+                playerBullets.kill(b);
+                events.publish(GameEvents.INVADER_KILLED, tick).at(i, (rect.left + rect.right) / 2, (rect.top + rect.bottom) / 2);
+            }
+        }
+    }
+
+    /**
+     * Has an alien bullet hit a shelter
+     */
+    void collideInvaderBulletsWithShelters() {
+        for (int i = invadersBullets.size() - 1; i >= 0; i--) {
+            if (shelters.sweep(invadersBullets, i) != Hitbox.NO_HIT) {
+                // A collision has occurred
+                invadersBullets.kill(i);
+                blastShelter();
+            }
+        }
+    }
+
+    /**
+     * Have the player's bullets hit a shelter
+     */
+    void collidePlayerBulletsWithShelters() {
+        for (int b = playerBullets.size() - 1; b >= 0; b--) {
+            if (shelters.sweep(playerBullets, b) != Hitbox.NO_HIT) {
+                // A collision has occurred
+                playerBullets.kill(b);
+                blastShelter();
+            }
+        }
+    }
+
+    /**
+     * The first living invader on the path of the player's bullet b this tick, or -1
+     * Leaves when it was hit, as a fraction of the tick, in hitTime
+     */
+    private int playerBulletFirstInvader(int b) {
+        playerBullets.getSweptBounds(b, swept);
+        int found = formation.query(swept.left, swept.top, swept.right, swept.bottom, candidates);
+
+        int first = -1;
+        hitTime = 2;
+        for (int c = 0; c < found; c++) {
+            Hitbox invaderRect = invaders[candidates[c]].getRect();
+            float time = playerBullets.sweep(b, invaderRect.left, invaderRect.top, invaderRect.right, invaderRect.bottom);
+            if (time != Hitbox.NO_HIT && time < hitTime) {
+                first = candidates[c];
+                hitTime = time;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Has an invader bullet hit the player ship
+     */
+    void collideInvaderBulletsWithPlayer() {
+        Hitbox playerRect = playerShip.getRect();
+        for (int i = invadersBullets.size() - 1; i >= 0; i--) {
+            if (invadersBullets.sweep(i, playerRect.left, playerRect.top, playerRect.right, playerRect.bottom) != Hitbox.NO_HIT) {
+                events.publish(GameEvents.PLAYER_HIT, tick).at(-1, invadersBullets.getX(i), invadersBullets.getImpactPointY(i));
+                invadersBullets.kill(i);
+            }
+        }
+    }
+
+    /**
+     * Blow a crater where the last shelter sweep hit
+     */
+    private void blastShelter() {
+        shelters.blastHit();
+        shelterVersion++;
+        events.publish(GameEvents.SHELTER_HIT, tick).at(shelters.getHitShelter(), shelters.getHitX(), shelters.getHitY());
+    }
+
+    /**
+     * What this tick's collisions mean for the game: the score, the lives, the end of a wave or of the game
+     * The collision phases only publish what they hit, the consequences are all decided here
+     */
+    void applyRules() {
+        for (long sequence = tickEvents; sequence < events.getPublished(); sequence++) {
+            GameEvent event = events.getBySequence(sequence);
+            switch (event.type) {
+                case GameEvents.INVADER_KILLED:
+                    score = score + INVADER_POINTS;
+
+                    // Has the player won, the score and lives carry on into the next wave
+                    if (formation.getAliveCount() == 0 && !paused) {
+                        events.publish(GameEvents.WAVE_CLEARED, tick);
+                        paused = true;
+                        level++;
+                        prepareLevel();
+                    }
+                    break;
+
+                case GameEvents.PLAYER_HIT:
+                    /**
+                     * Once the level is over the bullets that hit in the same tick are gone
+                     */
+                    if (paused) {
+                        break;
+                    }
+                    lives--;
+
+                    // Is it game over?
+                    if (lives == 0) {
+                        events.publish(GameEvents.GAME_OVER, tick);
+                        endGame();
+                    }
+                    break;
+
+                case GameEvents.GAME_OVER:
+                    /**
+                     * The invaders landed, unless the game already ended this tick
+                     */
+                    if (!paused) {
+                        endGame();
+                    }
+                    break;
+            }
+        }
+        tickEvents = events.getPublished();
+    }
+
+    /**
+     * Back to the first level, the score is kept for the stats and the next game starts from nothing
+     */
+    private void endGame() {
+        paused = true;
+        lives = 3;
+        finalScore = score;
+        score = 0;
+        level = 0;
+        prepareLevel();
+    }
+
+    /**
+     * Time the menacing sound on simulated time so it follows the game speed
+     */
+    void updateMenace(long dtNanos) {
+        if (!paused) {
+            nanosSinceMenace += dtNanos;
+            if (nanosSinceMenace > menaceInterval * 1000000L) {
+                events.publish(uhOrOh ? GameEvents.MENACE_UH : GameEvents.MENACE_OH, tick);
+                nanosSinceMenace = 0;
+
+                /**
+                 * Alter value of uhOrOh
+                 */
+                uhOrOh = !uhOrOh;
+            }
+        }
+    }
+
+    /**
+     * Write everything needed to carry on this exact game later, a few hundred bytes
+     * Call it from the thread that updates the world, or while nobody does
+     *
+     * Layout, big endian:
+     * header  int STATE_MAGIC, short STATE_VERSION, int screenX, int screenY, int invader bullet capacity,
+     *         int level, int invader columns, int invader rows, int shelter bricks
+     * game    long tick, long random state, boolean paused, int score, int finalScore, int lives,
+     *         long menaceInterval, long nanosSinceMenace, boolean uhOrOh, int shelterVersion, long reloadNanos,
+     *         boolean triggerHeld
+     * then    the ship, the player's bullets, the formation, the fire timers, the invader bullets, the shelter cells
+     *
+     * Sizes and positions that follow from the screen and the level's wave are not saved, prepareLevel() rebuilds them.
+     */
+    public void saveState(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(STATE_MAGIC);
+        data.writeShort(STATE_VERSION);
+        data.writeInt(screenX);
+        data.writeInt(screenY);
+        data.writeInt(invadersBullets.getCapacity());
+        data.writeInt(level);
+        data.writeInt(formation.getColumns());
+        data.writeInt(formation.getRows());
+        data.writeInt(wave.getBrickCount());
+
+        data.writeLong(tick);
+        data.writeLong(random.getState());
+        data.writeBoolean(paused);
+        data.writeInt(score);
+        data.writeInt(finalScore);
+        data.writeInt(lives);
+        data.writeLong(menaceInterval);
+        data.writeLong(nanosSinceMenace);
+        data.writeBoolean(uhOrOh);
+        data.writeInt(shelterVersion);
+        data.writeLong(reloadNanos);
+        data.writeBoolean(triggerHeld);
+
+        playerShip.writeState(data);
+        playerBullets.writeState(data);
+        formation.writeState(data);
+        fireScheduler.writeState(data);
+        invadersBullets.writeState(data);
+        shelters.writeState(data);
+        data.flush();
+    }
+
+    /**
+     * Carry on the game saveState() wrote, this world must have been built with the same settings
+     * The restored game is paused with the trigger released, it goes on when the player taps START
+     * A state saved for another screen or formation is refused before anything changes,
+     * a state cut short leaves the world paused at the start of a new game
+     */
+    public void restoreState(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != STATE_MAGIC) {
+            throw new IOException("Not a save state");
+        }
+        int version = data.readShort();
+        if (version != STATE_VERSION) {
+            throw new IOException("Unsupported save state version " + version);
+        }
+        if (data.readInt() != screenX || data.readInt() != screenY || data.readInt() != invadersBullets.getCapacity()) {
+            throw new IOException("Save state is for a different world");
+        }
+        int savedLevel = data.readInt();
+        if (savedLevel < 0) {
+            throw new IOException("Save state is at level " + savedLevel);
+        }
+        Wave savedWave = waves.get(savedLevel);
+        if (data.readInt() != savedWave.columns || data.readInt() != savedWave.rows || data.readInt() != savedWave.getBrickCount()) {
+            throw new IOException("Save state was made with other waves");
+        }
+
+        /**
+         * Lay the level out for this screen, then put the saved game on top of it
+         */
+        level = savedLevel;
+        prepareLevel();
+        events.clear();
+        try {
+            tick = data.readLong();
+            random.setState(data.readLong());
+            /**
+             * Saved mid-play or not, a restored game waits for the player to tap START,
+             * nothing may move while the view is still loading what it needs to show it
+             */
+            data.readBoolean();
+            paused = true;
+            score = data.readInt();
+            finalScore = data.readInt();
+            lives = data.readInt();
+            menaceInterval = data.readLong();
+            nanosSinceMenace = data.readLong();
+            uhOrOh = data.readBoolean();
+            int savedShelterVersion = data.readInt();
+            reloadNanos = data.readLong();
+            /**
+             * The fingers that held the trigger are gone with the view that saw them
+             */
+            data.readBoolean();
+            triggerHeld = false;
+
+            playerShip.readState(data);
+            playerBullets.readState(data);
+            formation.readState(data);
+            fireScheduler.readState(data);
+            invadersBullets.readState(data);
+            shelters.readState(data);
+
+            /**
+             * The version moves past both worlds' so no renderer keeps a stale picture
+             */
+            shelterVersion = Math.max(shelterVersion, savedShelterVersion) + 1;
+        } catch (IOException e) {
+            paused = true;
+            score = 0;
+            lives = 3;
+            level = 0;
+            prepareLevel();
+            throw e;
+        }
+    }
+
+    /**
+     * The bus the world publishes on, drain or clear it once per frame
+     */
+    public GameEvents getEvents() {
+        return events;
+    }
+
+    /**
+     * The level being played, counted from 0
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * The gun of the level being played
+     */
+    public Weapon getWeapon() {
+        return weapon;
+    }
+
+    public int getShelterVersion() {
+        return shelterVersion;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * A fingerprint of the game state, two worlds that played the same game have the same one
+     * Used by replays to notice when a change altered the game's behaviour
+     */
+    public long checksum() {
+        long hash = tick;
+        hash = hash * 31 + score;
+        hash = hash * 31 + lives;
+        hash = hash * 31 + level;
+        hash = hash * 31 + (paused ? 1 : 0);
+        hash = hash * 31 + random.getState();
+        hash = hash * 31 + Float.floatToIntBits(playerShip.getX());
+        for (int i = 0; i < playerBullets.size(); i++) {
+            hash = hash * 31 + Float.floatToIntBits(playerBullets.getX(i));
+            hash = hash * 31 + Float.floatToIntBits(playerBullets.getY(i));
+        }
+        hash = hash * 31 + formation.getAliveCount();
+        hash = hash * 31 + Float.floatToIntBits(formation.getX(0));
+        hash = hash * 31 + Float.floatToIntBits(formation.getY(0));
+        hash = hash * 31 + shelters.count();
+        for (int i = 0; i < invadersBullets.size(); i++) {
+            hash = hash * 31 + Float.floatToIntBits(invadersBullets.getX(i));
+            hash = hash * 31 + Float.floatToIntBits(invadersBullets.getY(i));
+        }
+        return hash;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getFinalScore() {
+        return finalScore;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Which of the two invader pictures to show
+     */
+    public boolean getUhOrOh() {
+        return uhOrOh;
+    }
+}
@@ -0,0 +1,70 @@
+package com.dev.spaceinvadersgame;
+
+/**
+ * An axis aligned rectangle used for hit detection.
+ * Plays the part of android's RectF so the game logic runs on a plain JVM.
+ */
+public class Hitbox {
+    /**
+     * Returned by sweep() when the moving box misses
+     */
+    public static final float NO_HIT = -1;
+
+    public float left;
+    public float top;
+    public float right;
+    public float bottom;
+
+    public void set(float left, float top, float right, float bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    /**
+     * Same rule as RectF.intersects, touching edges don't count
+     */
+    public static boolean intersects(Hitbox a, Hitbox b) {
+        return a.left < b.right && b.left < a.right && a.top < b.bottom && b.top < a.bottom;
+    }
+
+    /**
+     * Move the box left, top, right, bottom by dx, dy and find when it first overlaps the other box
+     * Returns the fraction of the move (0 to 1) at which they start to overlap, 0 if they already do,
+     * or NO_HIT. Touching edges don't count, same as intersects().
+     * Unlike testing where the box ends up, nothing is missed however long the move is.
+     */
+    public static float sweep(float left, float top, float right, float bottom, float dx, float dy,
+                              float otherLeft, float otherTop, float otherRight, float otherBottom) {
+        float entry = Float.NEGATIVE_INFINITY;
+        float exit = Float.POSITIVE_INFINITY;
+
+        if (dx == 0) {
+            if (!(left < otherRight && otherLeft < right)) {
+                return NO_HIT;
+            }
+        } else {
+            float near = ((dx > 0 ? otherLeft - right : otherRight - left)) / dx;
+            float far = ((dx > 0 ? otherRight - left : otherLeft - right)) / dx;
+            entry = Math.max(entry, near);
+            exit = Math.min(exit, far);
+        }
+
+        if (dy == 0) {
+            if (!(top < otherBottom && otherTop < bottom)) {
+                return NO_HIT;
+            }
+        } else {
+            float near = ((dy > 0 ? otherTop - bottom : otherBottom - top)) / dy;
+            float far = ((dy > 0 ? otherBottom - top : otherTop - bottom)) / dy;
+            entry = Math.max(entry, near);
+            exit = Math.min(exit, far);
+        }
+
+        if (entry >= exit || entry >= 1 || exit <= 0) {
+            return NO_HIT;
+        }
+        return Math.max(0, entry);
+    }
+}
@@ -0,0 +1,27 @@
+package com.dev.spaceinvadersgame;
+
+/**
+ * What the player can ask the game to do.
+ * Touches are turned into these before they reach GameWorld,
+ * plain ints so they can be queued or recorded without creating objects.
+ */
+public final class InputCommand {
+    /**
+     * Start or continue playing after a pause
+     */
+    public static final int START = 0;
+
+    public static final int MOVE_LEFT = 1;
+    public static final int MOVE_RIGHT = 2;
+    public static final int STOP = 3;
+    public static final int FIRE = 4;
+
+    /**
+     * A finger is down on the fire zone: shoot now, and keep shooting while it stays there if the weapon allows
+     */
+    public static final int HOLD_FIRE = 5;
+    public static final int RELEASE_FIRE = 6;
+
+    private InputCommand() {
+    }
+}
@@ -0,0 +1,117 @@
+package com.dev.spaceinvadersgame;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records a game session as a compact binary log: the seed and settings the GameWorld
+ * was built with, then every InputCommand with the tick it was applied before.
+ * Feeding that log to InputReplayer plays the exact same game again.
+ *
+ * Layout, big endian:
+ * header  int MAGIC, short VERSION, long seed, int screenX, int screenY, int maxInvaderBullets, long tickNanos,
+ *         UTF waves, the level definitions WaveGenerator.load() read
+ * command varint ticks since the previous command, byte command
+ * end     varint ticks since the previous command, byte END, long checksum of the world
+ *
+ * Commands go into a byte array owned by the recorder, so recording from the simulation
+ * thread costs a few array writes and no I/O.
+ */
+public class InputRecorder {
+    static final int MAGIC = 0x53495250;
+    static final int VERSION = 2;
+
+    /**
+     * Marks the last record, followed by the checksum
+     */
+    static final int END = 0xFF;
+
+    private final long seed;
+    private final int screenX;
+    private final int screenY;
+    private final int maxInvaderBullets;
+    private final long tickNanos;
+    private final String waves;
+
+    private byte[] records = new byte[16 * 1024];
+    private int length;
+    private long lastTick;
+
+    public InputRecorder(long seed, int screenX, int screenY, int maxInvaderBullets, long tickNanos) {
+        this(seed, screenX, screenY, maxInvaderBullets, tickNanos, WaveGenerator.DEFAULT_WAVES);
+    }
+
+    /**
+     * A game whose levels come from these wave definitions, they are saved with the log
+     * so a replay plays the same levels whatever the app ships with by then
+     */
+    public InputRecorder(long seed, int screenX, int screenY, int maxInvaderBullets, long tickNanos, String waves) {
+        this.seed = seed;
+        this.screenX = screenX;
+        this.screenY = screenY;
+        this.maxInvaderBullets = maxInvaderBullets;
+        this.tickNanos = tickNanos;
+        this.waves = waves;
+    }
+
+    /**
+     * A command handed to the world when it had run this many ticks
+     */
+    public void record(long tick, int command) {
+        ensureSpace(11);
+        writeVarLong(tick - lastTick);
+        records[length++] = (byte) command;
+        lastTick = tick;
+    }
+
+    /**
+     * Write the session so far, ending at the given tick with the world's checksum
+     * The recorder carries on recording afterwards
+     */
+    public void writeTo(OutputStream out, long endTick, long checksum) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeLong(seed);
+        data.writeInt(screenX);
+        data.writeInt(screenY);
+        data.writeInt(maxInvaderBullets);
+        data.writeLong(tickNanos);
+        data.writeUTF(waves);
+        data.write(records, 0, length);
+
+        long delta = endTick - lastTick;
+        while ((delta & ~0x7FL) != 0) {
+            data.writeByte((int) (delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        data.writeByte((int) delta);
+        data.writeByte(END);
+        data.writeLong(checksum);
+        data.flush();
+    }
+
+    /**
+     * How many bytes of commands have been recorded
+     */
+    public int size() {
+        return length;
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            records[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        records[length++] = (byte) value;
+    }
+
+    private void ensureSpace(int bytes) {
+        if (length + bytes > records.length) {
+            byte[] bigger = new byte[records.length * 2];
+            System.arraycopy(records, 0, bigger, 0, length);
+            records = bigger;
+        }
+    }
+}
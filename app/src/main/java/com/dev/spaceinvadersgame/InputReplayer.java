@@ -0,0 +1,154 @@
+package com.dev.spaceinvadersgame;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.Arrays;
+
+/**
+ * Plays an InputRecorder log back on a headless GameWorld, as fast as the CPU allows.
+ * The world is rebuilt from the recorded seed and settings and every command is applied
+ * at its recorded tick, so the final checksum must equal the recorded one.
+ * When it doesn't, a change has altered how the game behaves.
+ *
+ * Run from the command line with log files or directories of them:
+ * java com.dev.spaceinvadersgame.InputReplayer replays/
+ */
+public class InputReplayer {
+    /**
+     * The outcome of one replay
+     */
+    public static class Result {
+        public final long ticks;
+        public final long expectedChecksum;
+        public final long actualChecksum;
+        public final long nanos;
+
+        Result(long ticks, long expectedChecksum, long actualChecksum, long nanos) {
+            this.ticks = ticks;
+            this.expectedChecksum = expectedChecksum;
+            this.actualChecksum = actualChecksum;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Did the replay end in the recorded state
+         */
+        public boolean matches() {
+            return expectedChecksum == actualChecksum;
+        }
+
+        public double ticksPerSecond() {
+            return nanos == 0 ? 0 : ticks * 1e9 / nanos;
+        }
+    }
+
+    /**
+     * Replay one log, the stream is read to its end but not closed
+     */
+    public static Result replay(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != InputRecorder.MAGIC) {
+            throw new IOException("Not an input recording");
+        }
+        int version = data.readShort();
+        if (version != InputRecorder.VERSION) {
+            throw new IOException("Unsupported recording version " + version);
+        }
+        long seed = data.readLong();
+        int screenX = data.readInt();
+        int screenY = data.readInt();
+        int maxInvaderBullets = data.readInt();
+        long tickNanos = data.readLong();
+        WaveGenerator waves = WaveGenerator.load(new StringReader(data.readUTF()), true);
+
+        GameWorld world = new GameWorld(screenX, screenY, maxInvaderBullets, seed, waves);
+        long start = System.nanoTime();
+
+        while (true) {
+            long ticks = readVarLong(data);
+            for (long i = 0; i < ticks; i++) {
+                world.update(tickNanos);
+                world.getEvents().clear();
+            }
+
+            int command = data.readUnsignedByte();
+            if (command == InputRecorder.END) {
+                long expected = data.readLong();
+                long nanos = System.nanoTime() - start;
+                return new Result(world.getTick(), expected, world.checksum(), nanos);
+            }
+            world.handleCommand(command);
+        }
+    }
+
+    public static Result replay(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file));
+        try {
+            return replay(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static long readVarLong(DataInputStream data) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = data.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new EOFException("Corrupt tick count");
+            }
+        }
+    }
+
+    /**
+     * Replays every recording in the given files and directories
+     * Exits with 1 if one diverged, and with 2 if there was nothing to replay so an empty gate never passes
+     */
+    public static void main(String[] args) throws IOException {
+        int replayed = 0;
+        int diverged = 0;
+        long ticks = 0;
+        long nanos = 0;
+        for (String arg : args) {
+            File path = new File(arg);
+            File[] files = path.isDirectory() ? path.listFiles() : new File[]{path};
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                if (!file.isFile()) {
+                    continue;
+                }
+                Result result = replay(file);
+                replayed++;
+                ticks += result.ticks;
+                nanos += result.nanos;
+                if (!result.matches()) {
+                    diverged++;
+                }
+                System.out.println(file.getName() + ": " + result.ticks + " ticks in " + result.nanos / 1000000 + " ms ("
+                        + (long) result.ticksPerSecond() + " ticks/s) " + (result.matches() ? "OK" : "DIVERGED"));
+            }
+        }
+        if (replayed == 0) {
+            System.err.println("No recordings found in " + Arrays.toString(args));
+            System.exit(2);
+        }
+        System.out.println(replayed + " recordings, " + ticks + " ticks in " + nanos / 1000000 + " ms, " + diverged + " diverged");
+        if (diverged > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -1,170 +1,62 @@
 package com.dev.spaceinvadersgame;
 
-import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.RectF;
-import java.util.Random;
-
 public class Invader {
-    RectF rect;
-    Random generator = new Random();
-
-    /**
-     * The player ship will be represented by a Bitmap
-     */
-    private Bitmap bitmap1;
-    private Bitmap bitmap2;
-
-    /**
-     * How long and high our invader will be
-     */
-    private float length;
-    private float height;
-
-    /**
-     * x is the far left of the rectangle which forms our invader
-     */
-    private float x;
-
-    /**
-     * y is top coordinate
-     */
-    private float y;
+    Hitbox rect;
 
     /**
-     * This will hold the pixels per second speed that the invader will move
+     * The formation moves the invader, it only knows its slot in it
      */
-    private float shipSpeeed;
-
-    public final int LEFT = 1;
-    public final int RIGHT = 2;
-
-    /**
-     * Is the ship moving and which direction
-     */
-    private int shipMoving = RIGHT;
-
-    boolean isVisible;
-
-    public Invader(Context context, int row, int column, int screenX, int screenY) {
-        /**
-         * Initialize a blank RectF
-         */
-        rect = new RectF();
-        length = screenX / 20;
-        height = screenY / 20;
-        isVisible = true;
-
-        int padding = screenX / 25;
-
-        x = column * (length + padding);
-        y = row * (length + padding / 4);
-
-        /**
-         * Initialize the bitmap
-         */
-        bitmap1 = BitmapFactory.decodeResource(context.getResources(), R.drawable.invader1);
-        bitmap2 = BitmapFactory.decodeResource(context.getResources(), R.drawable.invader2);
+    private final Formation formation;
+    private final int slot;
 
-        /**
-         * Stretch the first bitmap to a size appropriate for the screen resolution
-         */
-        bitmap1 = Bitmap.createScaledBitmap(bitmap1, (int) (length), (int) (height), false);
-        bitmap2 = Bitmap.createScaledBitmap(bitmap2, (int) (length), (int) (height), false);
+    public Invader(Formation formation, int slot) {
+        this.formation = formation;
+        this.slot = slot;
 
         /**
-         * How fast is the invader in pixels per second
+         * Initialize a blank Hitbox
          */
-        shipSpeeed = 40;
+        rect = new Hitbox();
     }
 
     public void setInvisible() {
-        isVisible = false;
+        formation.kill(slot);
     }
 
     public boolean getVisibility() {
-        return isVisible;
+        return formation.isAlive(slot);
     }
 
-    public RectF getRect() {
+    /**
+     * The rect which is used to detect hits, brought up to date with the formation
+     */
+    public Hitbox getRect() {
+        float x = getX();
+        float y = getY();
+        rect.set(x, y, x + formation.getInvaderWidth(), y + formation.getInvaderHeight());
         return rect;
     }
 
-    public Bitmap getBitmap() {
-        return bitmap1;
-    }
-
-    public Bitmap getBitmap2() {
-        return bitmap2;
-    }
-
     public float getX() {
-        return x;
+        return formation.getX(slot);
     }
 
     public float getY() {
-        return y;
+        return formation.getY(slot);
     }
 
     public float getLength() {
-        return length;
+        return formation.getInvaderWidth();
     }
 
-    public void update(long fps) {
-        if (shipMoving == LEFT) {
-            x = x - shipSpeeed / fps;
-        }
-        if (shipMoving == RIGHT) {
-            x = x + shipSpeeed / fps;
-        }
-
-        /**
-         * Update rect which is used to detect hits
-         */
-        rect.top = y;
-        rect.bottom = y + height;
-        rect.left = x;
-        rect.right = x + length;
-    }
-
-    public void dropDownAndReverse() {
-        if (shipMoving == LEFT) {
-            shipMoving = RIGHT;
-        } else {
-            shipMoving = LEFT;
-        }
-
-        y = y + height;
-
-        shipSpeeed = shipSpeeed * 1.18f;
+    /**
+     * Draw position between the previous tick and this one
+     */
+    public float getDrawX(float alpha) {
+        return formation.getDrawX(slot, alpha);
     }
 
-    public boolean takeAim(float playerShipX, float playerShipLength) {
-        int randomNumber = -1;
-
-        /**
-         * If near the player
-         */
-        if ((playerShipX + playerShipLength > x &&
-                playerShipX + playerShipLength < x + length) || (playerShipX > x && playerShipX < x + length)) {
-            /**
-             * A 1 in 500 chance to shoot
-             */
-            randomNumber = generator.nextInt(150);
-            if (randomNumber == 0) {
-                return true;
-            }
-        }
-
-        /**
-         * If firing randomly (not near the player) a 1 in 500 chance
-         */
-        randomNumber = generator.nextInt(2000);
-        if (randomNumber == 0) {
-            return true;
-        }
-
-        return false;
+    public float getDrawY(float alpha) {
+        return formation.getDrawY(slot, alpha);
     }
 }
@@ -1,17 +1,11 @@
 package com.dev.spaceinvadersgame;
 
-import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.RectF;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 public class PlayerShip {
-    RectF rect;
-
-    /**
-     * The player ship will be represented by a Bitmap
-     */
-    private Bitmap bitmap;
+    Hitbox rect;
 
     /**
      * How long and high our ship will be
@@ -24,6 +18,11 @@ public class PlayerShip {
      */
     private float x;
 
+    /**
+     * Where x was at the previous tick, used to smooth drawing
+     */
+    private float previousX;
+
     /**
      * y is the top coordinate
      */
@@ -50,12 +49,18 @@ public class PlayerShip {
      * This the constructor method
      * When we create an object from this class we will pass in the screen width and height
      */
-    public PlayerShip(Context context, int screenX, int screenY) {
+    public PlayerShip(int screenX, int screenY) {
         /**
-         * Initialize a blank RectF
+         * Initialize a blank Hitbox
          */
-        rect = new RectF();
+        rect = new Hitbox();
+        reset(screenX, screenY);
+    }
 
+    /**
+     * Park the ship back in the middle of the screen without allocating anything
+     */
+    public void reset(int screenX, int screenY) {
         length = screenX / 10;
         height = screenY / 10;
 
@@ -63,36 +68,27 @@ public class PlayerShip {
          * Start ship in roughly the screen center
          */
         x = screenX / 2;
+        previousX = x;
         y = screenY - 20;
 
-        /**
-         * Initialize the bitmap
-         */
-        bitmap = BitmapFactory.decodeResource(context.getResources(), R.drawable.playership);
-
-        /**
-         * Stretch the bitmap to a size appropriate for use the screen resolution
-         */
-        bitmap = Bitmap.createScaledBitmap(bitmap,
-                (int) (length),
-                (int) (height),
-                false);
-
         /**
          * How fast is the spaceship in ppixels per second
          */
         shipSpeed = 350;
-    }
 
-    public RectF getRect() {
-        return rect;
+        shipMoving = STOPPED;
+
+        rect.top = y;
+        rect.bottom = y + height;
+        rect.left = x;
+        rect.right = x + length;
     }
 
     /**
      * This is a getter method to make the rectangle that defines our ship available in SpaceInvadersView class
      */
-    public Bitmap getBitmap() {
-        return bitmap;
+    public Hitbox getRect() {
+        return rect;
     }
 
     public float getX() {
@@ -103,6 +99,13 @@ public class PlayerShip {
         return length;
     }
 
+    /**
+     * Draw position between the previous tick and this one
+     */
+    public float getDrawX(float alpha) {
+        return previousX + (x - previousX) * alpha;
+    }
+
     /**
      * This method will be used to change/set if the ship is going left, right or nowhere
      */
@@ -110,17 +113,36 @@ public class PlayerShip {
         shipMoving = state;
     }
 
+    /**
+     * Save where the ship is and where it is going, its size comes from the screen
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeFloat(x);
+        out.writeFloat(previousX);
+        out.writeInt(shipMoving);
+    }
+
+    void readState(DataInput in) throws IOException {
+        x = in.readFloat();
+        previousX = in.readFloat();
+        shipMoving = in.readInt();
+        rect.left = x;
+        rect.right = x + length;
+    }
+
     /**
      * This update method will be called from update in SpaceInvadersView
      * It determines if the player ship needs to move and changes the coordinates contained in x if necessary
      */
-    public void update(long fps) {
+    public void update(float dt) {
+        previousX = x;
+
         if (shipMoving == LEFT) {
-            x = x - shipSpeed / fps;
+            x = x - shipSpeed * dt;
         }
 
         if (shipMoving == RIGHT) {
-            x = x + shipSpeed / fps;
+            x = x + shipSpeed * dt;
         }
 
         /**
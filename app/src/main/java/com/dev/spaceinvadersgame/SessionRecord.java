@@ -0,0 +1,72 @@
+package com.dev.spaceinvadersgame;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The stats of one game, as stored by StatsStore.
+ * A game can be saved several times while it goes on (every time the app is paused)
+ * and once when it ends, all with the same gameId. The latest save wins.
+ */
+public class SessionRecord {
+    /**
+     * Bytes taken by one record on disk
+     */
+    public static final int SIZE = 40;
+
+    /**
+     * Wall clock time the game started, in milliseconds, also identifies the game
+     */
+    public final long gameId;
+
+    /**
+     * Time spent actually playing, pauses excluded
+     */
+    public final long durationNanos;
+    public final int score;
+    public final int shots;
+    public final int hits;
+
+    /**
+     * Frame time summary over the last frames of the game, in microseconds
+     */
+    public final int frameP50Micros;
+    public final int frameP99Micros;
+    public final int frameMaxMicros;
+
+    public SessionRecord(long gameId, long durationNanos, int score, int shots, int hits,
+                         int frameP50Micros, int frameP99Micros, int frameMaxMicros) {
+        this.gameId = gameId;
+        this.durationNanos = durationNanos;
+        this.score = score;
+        this.shots = shots;
+        this.hits = hits;
+        this.frameP50Micros = frameP50Micros;
+        this.frameP99Micros = frameP99Micros;
+        this.frameMaxMicros = frameMaxMicros;
+    }
+
+    /**
+     * Share of shots that killed an invader, 0 to 1
+     */
+    public float getAccuracy() {
+        return shots == 0 ? 0 : (float) hits / shots;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(gameId);
+        out.writeLong(durationNanos);
+        out.writeInt(score);
+        out.writeInt(shots);
+        out.writeInt(hits);
+        out.writeInt(frameP50Micros);
+        out.writeInt(frameP99Micros);
+        out.writeInt(frameMaxMicros);
+    }
+
+    public static SessionRecord read(DataInput in) throws IOException {
+        return new SessionRecord(in.readLong(), in.readLong(), in.readInt(), in.readInt(), in.readInt(),
+                in.readInt(), in.readInt(), in.readInt());
+    }
+}
@@ -0,0 +1,81 @@
+package com.dev.spaceinvadersgame;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Counts what happens during one game, listens to the GameEvents bus on the simulation thread.
+ * Plain counters, nothing is allocated until a record is taken.
+ * The counters are saved next to the world, so a game carried on after a restart keeps its id and its numbers.
+ */
+public class SessionStats implements GameEvents.Listener {
+    private long gameId;
+    private long durationNanos;
+    private int shots;
+    private int hits;
+
+    /**
+     * Start counting a new game
+     */
+    public void start(long gameId) {
+        this.gameId = gameId;
+        durationNanos = 0;
+        shots = 0;
+        hits = 0;
+    }
+
+    @Override
+    public void onEvent(GameEvent event) {
+        switch (event.getType()) {
+            case GameEvents.SHOT_FIRED:
+                shots++;
+                break;
+
+            case GameEvents.INVADER_KILLED:
+                hits++;
+                break;
+        }
+    }
+
+    /**
+     * Time spent playing, call it only for ticks that ran unpaused
+     */
+    public void addTime(long nanos) {
+        durationNanos += nanos;
+    }
+
+    /**
+     * Has anything happened worth saving
+     */
+    public boolean hasActivity() {
+        return durationNanos > 0 || shots > 0;
+    }
+
+    /**
+     * Save the counters of the game being played
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeLong(gameId);
+        out.writeLong(durationNanos);
+        out.writeInt(shots);
+        out.writeInt(hits);
+    }
+
+    void readState(DataInput in) throws IOException {
+        gameId = in.readLong();
+        durationNanos = in.readLong();
+        shots = in.readInt();
+        hits = in.readInt();
+    }
+
+    /**
+     * The game so far, with the frame time summary of the given profiler phase
+     */
+    public SessionRecord toRecord(int score, FrameProfiler profiler, int phase) {
+        return new SessionRecord(gameId, durationNanos, score, shots, hits,
+                (int) (profiler.percentile(phase, 0.5) / 1000),
+                (int) (profiler.percentile(phase, 0.99) / 1000),
+                (int) (profiler.max(phase) / 1000));
+    }
+}
@@ -0,0 +1,132 @@
+package com.dev.spaceinvadersgame;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * The parts of the screen that almost never change, the background and the shelters,
+ * kept pre-drawn in one bitmap. A frame copies it with a single call.
+ * A shelter is drawn by turning its ShelterMask bits into the pixels of a small bitmap, one pixel per cell,
+ * and stretching that over the shelter. Only the shelters whose bits changed are drawn again,
+ * the whole layer is only redrawn when the shelters are rebuilt.
+ */
+public class ShelterLayer {
+    private final int backgroundColor;
+    private final int shelterColor;
+
+    private Bitmap bitmap;
+    private Canvas canvas;
+
+    /**
+     * One shelter at one pixel per cell, and the pixels it is filled from
+     */
+    private Bitmap cells;
+    private int[] pixels = new int[0];
+    private final Rect source = new Rect();
+    private final RectF destination = new RectF();
+
+    /**
+     * What the layer currently shows
+     */
+    private int drawnVersion = -1;
+    private int drawnLevel = -1;
+    private final ShelterMask drawn = new ShelterMask();
+
+    public ShelterLayer(int backgroundColor, int shelterColor) {
+        this.backgroundColor = backgroundColor;
+        this.shelterColor = shelterColor;
+    }
+
+    /**
+     * Bring the layer in line with the snapshot, does nothing if the shelters haven't changed
+     */
+    public void update(WorldSnapshot snapshot, int width, int height) {
+        if (bitmap == null) {
+            /**
+             * Opaque, so 16 bits per pixel are plenty
+             */
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+            canvas = new Canvas(bitmap);
+            drawnVersion = -1;
+        }
+
+        if (drawnVersion == snapshot.shelterVersion) {
+            return;
+        }
+
+        /**
+         * Another level may lay its shelters out differently, then the old ones must be painted over
+         */
+        ShelterMask shelters = snapshot.shelters;
+        boolean rebuild = drawnVersion == -1 || drawnLevel != snapshot.level || !drawn.sameLayout(shelters);
+        if (rebuild) {
+            canvas.drawColor(backgroundColor);
+            int size = shelters.getColumns() * shelters.getRows();
+            if (pixels.length < size) {
+                pixels = new int[size];
+            }
+            if (cells == null || cells.getWidth() < shelters.getColumns() || cells.getHeight() < shelters.getRows()) {
+                if (cells != null) {
+                    cells.recycle();
+                }
+                cells = Bitmap.createBitmap(Math.max(1, shelters.getColumns()), Math.max(1, shelters.getRows()), Bitmap.Config.ARGB_8888);
+            }
+        }
+
+        for (int shelter = 0; shelter < shelters.getShelters(); shelter++) {
+            if (rebuild || !drawn.sameShelter(shelters, shelter)) {
+                drawShelter(shelters, shelter);
+            }
+        }
+
+        drawn.copyFrom(shelters);
+        drawnLevel = snapshot.level;
+        drawnVersion = snapshot.shelterVersion;
+    }
+
+    /**
+     * Blit one shelter from its bits, every cell is painted so nothing needs clearing first
+     */
+    private void drawShelter(ShelterMask shelters, int shelter) {
+        int columns = shelters.getColumns();
+        int rows = shelters.getRows();
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                pixels[row * columns + column] = shelters.get(shelter, column, row) ? shelterColor : backgroundColor;
+            }
+        }
+        cells.setPixels(pixels, 0, columns, 0, 0, columns, rows);
+
+        /**
+         * No paint, so the cells are scaled up without filtering and keep their sharp edges
+         */
+        source.set(0, 0, columns, rows);
+        float left = shelters.getLeft(shelter);
+        float top = shelters.getTop();
+        destination.set(left, top, left + columns * shelters.getCellWidth(), top + rows * shelters.getCellHeight());
+        canvas.drawBitmap(cells, source, destination, null);
+    }
+
+    public void draw(Canvas target) {
+        if (bitmap != null) {
+            target.drawBitmap(bitmap, 0, 0, null);
+        }
+    }
+
+    /**
+     * Free the bitmaps, they are rebuilt on the next update
+     */
+    public void release() {
+        if (bitmap != null) {
+            bitmap.recycle();
+            bitmap = null;
+            canvas = null;
+        }
+        if (cells != null) {
+            cells.recycle();
+            cells = null;
+        }
+    }
+}
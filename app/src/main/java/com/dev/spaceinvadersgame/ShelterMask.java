@@ -0,0 +1,362 @@
+package com.dev.spaceinvadersgame;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Every shelter of a level as a raster of small cells, one bit each, set while the cell stands.
+ * A shelter is as big as the Wave's bricks say, and every brick is cut into CELLS_ACROSS by CELLS_DOWN cells,
+ * so the 4 classic shelters take 4 x 40 x 40 bits, 800 bytes, where they used to be 200 objects.
+ *
+ * Finding what a bullet hit is a few bit lookups down the column of cells it flies through,
+ * whatever the number of shelters, and a hit blows a crater out of the cells around it
+ * instead of taking a whole brick away.
+ *
+ * Each shelter starts on a word of its own, so one shelter can be compared or redrawn without the others.
+ */
+public class ShelterMask {
+    /**
+     * Cells per brick of the Wave
+     */
+    static final int CELLS_ACROSS = 4;
+    static final int CELLS_DOWN = 8;
+
+    /**
+     * Half the width and height of a crater, in cells
+     */
+    static final int CRATER_RADIUS_X = 3;
+    static final int CRATER_RADIUS_Y = 2;
+
+    /**
+     * The cells a crater clears around the one that was hit, an ellipse worked out once
+     */
+    private static final int[] CRATER_COLUMNS;
+    private static final int[] CRATER_ROWS;
+
+    static {
+        int size = 0;
+        int[] columns = new int[(2 * CRATER_RADIUS_X + 1) * (2 * CRATER_RADIUS_Y + 1)];
+        int[] rows = new int[columns.length];
+        for (int row = -CRATER_RADIUS_Y; row <= CRATER_RADIUS_Y; row++) {
+            for (int column = -CRATER_RADIUS_X; column <= CRATER_RADIUS_X; column++) {
+                float x = (float) column / CRATER_RADIUS_X;
+                float y = (float) row / CRATER_RADIUS_Y;
+                if (x * x + y * y <= 1) {
+                    columns[size] = column;
+                    rows[size] = row;
+                    size++;
+                }
+            }
+        }
+        CRATER_COLUMNS = Arrays.copyOf(columns, size);
+        CRATER_ROWS = Arrays.copyOf(rows, size);
+    }
+
+    /**
+     * How many shelters, and the cells across and down each of them
+     */
+    private int shelters;
+    private int columns;
+    private int rows;
+    private int wordsPerShelter;
+
+    /**
+     * Bit row * columns + column of word shelter * wordsPerShelter onwards, only grows
+     */
+    private long[] words = new long[0];
+    private int count;
+
+    /**
+     * Where the shelters are, shelter s starts at firstLeft + s * spacing
+     */
+    private float firstLeft;
+    private float spacing;
+    private float top;
+    private float cellWidth;
+    private float cellHeight;
+
+    /**
+     * The cell the last successful sweep() found
+     */
+    private int hitShelter;
+    private int hitColumn;
+    private int hitRow;
+
+    /**
+     * Lay the shelters of a wave out on the screen, every cell of their shape standing
+     * The screen is cut in shelters * 2 + 1 strips and every other strip starts a shelter, so any number of them is spread evenly
+     */
+    public void reset(Wave wave, int screenX, int screenY) {
+        int brickWidth = screenX / 90;
+        int brickHeight = screenY / 40;
+        int shelterPadding = screenX / (wave.shelters * 2 + 1);
+
+        shelters = wave.shelters;
+        columns = wave.shelterColumns * CELLS_ACROSS;
+        rows = wave.shelterRows * CELLS_DOWN;
+        wordsPerShelter = (columns * rows + 63) >>> 6;
+        firstLeft = shelterPadding;
+        spacing = shelterPadding * 2;
+        top = screenY - (screenY / 8 * 2);
+        cellWidth = (float) brickWidth / CELLS_ACROSS;
+        cellHeight = (float) brickHeight / CELLS_DOWN;
+
+        if (words.length < shelters * wordsPerShelter) {
+            words = new long[shelters * wordsPerShelter];
+        }
+        Arrays.fill(words, 0);
+        count = 0;
+        for (int shelter = 0; shelter < shelters; shelter++) {
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    if (isShelterShape(column, row)) {
+                        int bit = bit(shelter, column, row);
+                        words[bit >>> 6] |= 1L << bit;
+                        count++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The arcade outline: the top corners cut off and an arch underneath for the ship to shoot through
+     */
+    private boolean isShelterShape(int column, int row) {
+        int corner = rows / 4;
+        if (row < corner && (column + row < corner || (columns - 1 - column) + row < corner)) {
+            return false;
+        }
+        float archX = (column + 0.5f - columns / 2f) / (columns / 5f);
+        float archY = (rows - row - 0.5f) / (rows / 3f);
+        return archX * archX + archY * archY > 1;
+    }
+
+    private int bit(int shelter, int column, int row) {
+        return (shelter * wordsPerShelter << 6) + row * columns + column;
+    }
+
+    /**
+     * Is this cell standing
+     */
+    public boolean get(int shelter, int column, int row) {
+        int bit = bit(shelter, column, row);
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * How many cells are standing in all the shelters
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * When, as a fraction of the last tick, the bullet in this slot first reached a standing cell,
+     * Hitbox.NO_HIT if it didn't
+     * The cells are looked up row by row from the side the bullet comes from,
+     * so the first one found is the one it reached first. The cell is kept for blastHit().
+     */
+    public float sweep(BulletPool pool, int i) {
+        if (count == 0) {
+            return Hitbox.NO_HIT;
+        }
+        float previousY = pool.getPreviousY(i);
+        float y = pool.getY(i);
+        float sweptTop = Math.min(previousY, y);
+        float sweptBottom = Math.max(previousY, y) + pool.getHeight();
+        if (sweptBottom <= top || sweptTop >= top + rows * cellHeight) {
+            return Hitbox.NO_HIT;
+        }
+        float left = Math.min(pool.getPreviousX(i), pool.getX(i));
+        float right = Math.max(pool.getPreviousX(i), pool.getX(i)) + pool.getWidth();
+        int firstRow = Math.max(0, (int) Math.floor((sweptTop - top) / cellHeight));
+        int lastRow = Math.min(rows - 1, (int) Math.ceil((sweptBottom - top) / cellHeight) - 1);
+        boolean up = y < previousY;
+
+        /**
+         * A bullet is narrower than the gap between two shelters, it can only touch the ones its edges are in
+         */
+        int shelter = Math.max(0, (int) Math.floor((left - firstLeft) / spacing));
+        float time = Hitbox.NO_HIT;
+        for (int s = shelter; s <= shelter + 1 && s < shelters; s++) {
+            float shelterLeft = firstLeft + s * spacing;
+            int firstColumn = Math.max(0, (int) Math.floor((left - shelterLeft) / cellWidth));
+            int lastColumn = Math.min(columns - 1, (int) Math.ceil((right - shelterLeft) / cellWidth) - 1);
+            if (firstColumn > lastColumn) {
+                continue;
+            }
+            for (int step = 0; step <= lastRow - firstRow; step++) {
+                int row = up ? lastRow - step : firstRow + step;
+                int column = firstStanding(s, row, firstColumn, lastColumn);
+                if (column >= 0) {
+                    float hit = 0;
+                    if (up) {
+                        hit = (previousY - (top + (row + 1) * cellHeight)) / (previousY - y);
+                    } else if (y > previousY) {
+                        hit = (top + row * cellHeight - (previousY + pool.getHeight())) / (y - previousY);
+                    }
+                    hit = Math.max(0, Math.min(1, hit));
+                    if (time == Hitbox.NO_HIT || hit < time) {
+                        time = hit;
+                        hitShelter = s;
+                        hitColumn = column;
+                        hitRow = row;
+                    }
+                    break;
+                }
+            }
+        }
+        return time;
+    }
+
+    private int firstStanding(int shelter, int row, int firstColumn, int lastColumn) {
+        for (int column = firstColumn; column <= lastColumn; column++) {
+            if (get(shelter, column, row)) {
+                return column;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Blow a crater around the cell the last sweep() hit, returns how many cells went
+     */
+    public int blastHit() {
+        return blast(hitShelter, hitColumn, hitRow);
+    }
+
+    /**
+     * Clear the crater around a cell, returns how many cells went
+     */
+    public int blast(int shelter, int column, int row) {
+        int cleared = 0;
+        for (int k = 0; k < CRATER_COLUMNS.length; k++) {
+            int c = column + CRATER_COLUMNS[k];
+            int r = row + CRATER_ROWS[k];
+            if (c >= 0 && c < columns && r >= 0 && r < rows) {
+                int bit = bit(shelter, c, r);
+                long mask = 1L << bit;
+                if ((words[bit >>> 6] & mask) != 0) {
+                    words[bit >>> 6] &= ~mask;
+                    cleared++;
+                }
+            }
+        }
+        count -= cleared;
+        return cleared;
+    }
+
+    public int getHitShelter() {
+        return hitShelter;
+    }
+
+    /**
+     * Centre of the cell the last sweep() hit
+     */
+    public float getHitX() {
+        return firstLeft + hitShelter * spacing + (hitColumn + 0.5f) * cellWidth;
+    }
+
+    public float getHitY() {
+        return top + (hitRow + 0.5f) * cellHeight;
+    }
+
+    public int getShelters() {
+        return shelters;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public float getLeft(int shelter) {
+        return firstLeft + shelter * spacing;
+    }
+
+    public float getTop() {
+        return top;
+    }
+
+    public float getCellWidth() {
+        return cellWidth;
+    }
+
+    public float getCellHeight() {
+        return cellHeight;
+    }
+
+    /**
+     * Become a copy of another mask, growing only when it is bigger than any copied before
+     */
+    public void copyFrom(ShelterMask other) {
+        shelters = other.shelters;
+        columns = other.columns;
+        rows = other.rows;
+        wordsPerShelter = other.wordsPerShelter;
+        firstLeft = other.firstLeft;
+        spacing = other.spacing;
+        top = other.top;
+        cellWidth = other.cellWidth;
+        cellHeight = other.cellHeight;
+        count = other.count;
+        int used = shelters * wordsPerShelter;
+        if (words.length < used) {
+            words = new long[used];
+        }
+        System.arraycopy(other.words, 0, words, 0, used);
+    }
+
+    /**
+     * Does one shelter look the same in both masks, which must have the same layout
+     */
+    public boolean sameShelter(ShelterMask other, int shelter) {
+        int from = shelter * wordsPerShelter;
+        for (int i = from; i < from + wordsPerShelter; i++) {
+            if (words[i] != other.words[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Do both masks cut the screen the same way
+     */
+    public boolean sameLayout(ShelterMask other) {
+        return shelters == other.shelters && columns == other.columns && rows == other.rows
+                && firstLeft == other.firstLeft && top == other.top && cellWidth == other.cellWidth && cellHeight == other.cellHeight;
+    }
+
+    /**
+     * Save the cells, the layout follows from the wave and the screen
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(shelters);
+        out.writeInt(columns);
+        out.writeInt(rows);
+        for (int i = 0; i < shelters * wordsPerShelter; i++) {
+            out.writeLong(words[i]);
+        }
+    }
+
+    /**
+     * Read the cells back into a mask already reset() for the same wave and screen
+     */
+    void readState(DataInput in) throws IOException {
+        if (in.readInt() != shelters || in.readInt() != columns || in.readInt() != rows) {
+            throw new IOException("Saved shelters don't match the level");
+        }
+        count = 0;
+        for (int i = 0; i < shelters * wordsPerShelter; i++) {
+            words[i] = in.readLong();
+            count += Long.bitCount(words[i]);
+        }
+    }
+}
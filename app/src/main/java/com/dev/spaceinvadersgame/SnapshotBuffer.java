@@ -0,0 +1,66 @@
+package com.dev.spaceinvadersgame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands world snapshots from the simulation thread to the render thread without locks.
+ * Three snapshots rotate: the simulation fills the back one, the renderer reads the front one,
+ * and the middle one holds the latest finished tick. Publishing and acquiring are a single
+ * atomic swap each, so neither thread ever waits for the other.
+ */
+public class SnapshotBuffer {
+    /**
+     * Set on the middle index when it holds a snapshot the renderer hasn't seen
+     */
+    private static final int FRESH = 4;
+    private static final int INDEX = 3;
+
+    private final WorldSnapshot[] snapshots;
+    private final AtomicInteger middle = new AtomicInteger(2);
+
+    /**
+     * Only touched by the simulation thread
+     */
+    private int back = 0;
+
+    /**
+     * Only touched by the render thread
+     */
+    private int front = 1;
+
+    public SnapshotBuffer(WorldSnapshot first, WorldSnapshot second, WorldSnapshot third) {
+        snapshots = new WorldSnapshot[]{first, second, third};
+    }
+
+    /**
+     * The snapshot the simulation may write into
+     */
+    public WorldSnapshot getBack() {
+        return snapshots[back];
+    }
+
+    /**
+     * Make the back snapshot the latest one and take the old middle as the new back
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX;
+    }
+
+    /**
+     * The most recent snapshot for the renderer
+     * Stays the same until the simulation publishes a newer one
+     */
+    public WorldSnapshot acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX;
+        }
+        return snapshots[front];
+    }
+
+    /**
+     * Has the simulation published a snapshot the renderer hasn't acquired yet
+     */
+    public boolean hasFresh() {
+        return (middle.get() & FRESH) != 0;
+    }
+}
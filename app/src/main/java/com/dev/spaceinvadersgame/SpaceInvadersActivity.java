@@ -17,6 +17,17 @@ public class SpaceInvadersActivity extends Activity {
      */
     SpaceInvadersView spaceInvadersView;
 
+    /**
+     * Where the game is kept while the activity is recreated
+     */
+    private static final String SAVED_WORLD = "world";
+
+    /**
+     * Launch with this boolean extra set to play the bullet hell difficulty, for instance
+     * adb shell am start -n com.dev.spaceinvadersgame/.SpaceInvadersActivity --ez bulletHell true
+     */
+    public static final String EXTRA_BULLET_HELL = "bulletHell";
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -35,7 +46,12 @@ public class SpaceInvadersActivity extends Activity {
         /**
          * InitializegameView and set its as the view
          */
-        spaceInvadersView = new SpaceInvadersView(this, size.x, size.y);
+        /**
+         * Carry on the game the system kept for us, if any
+         */
+        byte[] savedState = savedInstanceState != null ? savedInstanceState.getByteArray(SAVED_WORLD) : null;
+        boolean bulletHell = getIntent().getBooleanExtra(EXTRA_BULLET_HELL, false);
+        spaceInvadersView = new SpaceInvadersView(this, size.x, size.y, savedState, bulletHell);
         setContentView(spaceInvadersView);
     }
 
@@ -64,4 +80,17 @@ public class SpaceInvadersActivity extends Activity {
          */
         spaceInvadersView.pause();
     }
+
+    /**
+     * The system may destroy the activity after this, keep the game the view saved when it paused
+     */
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+
+        byte[] savedState = spaceInvadersView.getSavedState();
+        if (savedState != null) {
+            outState.putByteArray(SAVED_WORLD, savedState);
+        }
+    }
 }
@@ -1,30 +1,50 @@
 package com.dev.spaceinvadersgame;
 
 
+import android.app.Activity;
 import android.content.Context;
-import android.content.res.AssetFileDescriptor;
-import android.content.res.AssetManager;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.RectF;
 import android.media.AudioManager;
 import android.media.SoundPool;
+import android.os.Build;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.MotionEvent;
 import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.locks.LockSupport;
 
 public class SpaceInvadersView extends SurfaceView implements Runnable {
     Context context;
 
     /**
-     * This is our thread
+     * This is our thread, it runs the simulation
      */
     private Thread gameThread = null;
 
+    /**
+     * Draws the latest snapshot of the world, so waiting for vsync never holds up the game
+     */
+    private Thread renderThread = null;
+
     /**
      * Oour SurfaceHolder to lock the surface before we draw our graphics
      */
@@ -35,11 +55,6 @@ public class SpaceInvadersView extends SurfaceView implements Runnable {
      */
     private volatile boolean playing;
 
-    /**
-     * Game is paused at the start
-     */
-    private boolean paused = true;
-
     /**
      * A Canvas and Paint object
      */
@@ -47,14 +62,61 @@ public class SpaceInvadersView extends SurfaceView implements Runnable {
     private Paint paint;
 
     /**
-     * This variable tracks the game frame rate
+     * Every sprite, decoded and scaled once per screen size
+     */
+    private SpriteAtlas sprites = new SpriteAtlas();
+
+    /**
+     * Background and shelters, pre-drawn and only touched up when a shelter is hit
+     */
+    private ShelterLayer shelterLayer;
+
+    /**
+     * The score line, only rebuilt when the score or lives change
+     */
+    private String hudText;
+    private int hudScore = -1;
+    private int hudLives = -1;
+    private int hudLevel = -1;
+
+    /**
+     * How many times per second the game logic runs, independent of the display refresh rate
      */
-    private long fps;
+    private static final int TICK_RATE = FixedTimestepLoop.DEFAULT_TICK_RATE;
 
     /**
-     * This is used to help calculate the fps
+     * Paces the simulation in fixed ticks
      */
-    private long timeThisFrame;
+    private FixedTimestepLoop loop = new FixedTimestepLoop(TICK_RATE, FixedTimestepLoop.DEFAULT_MAX_CATCH_UP_STEPS);
+
+    /**
+     * Where the frame time goes, kept for the last few seconds
+     * Each thread records into its own profiler
+     */
+    private FrameProfiler simProfiler = new FrameProfiler(512);
+    private FrameProfiler renderProfiler = new FrameProfiler(512);
+
+    /**
+     * Paces the render thread and sheds optional work when frames get too expensive
+     */
+    private FrameGovernor governor = new FrameGovernor(TICK_RATE);
+
+    /**
+     * Set while the render thread waits for a new snapshot, the simulation wakes it when it publishes one
+     */
+    private volatile boolean renderIdle;
+
+    /**
+     * Counts the menace sounds, every other one is dropped while the governor is saving work
+     */
+    private int menaceCount;
+
+    /**
+     * Show the profiler numbers on screen, debug builds only by default
+     */
+    private boolean showProfilerOverlay = BuildConfig.DEBUG;
+    private String[] profilerLines = new String[FrameProfiler.PHASE_COUNT];
+    private int framesSinceOverlayRefresh;
 
     /**
      * The size of screen in pixels
@@ -63,75 +125,87 @@ public class SpaceInvadersView extends SurfaceView implements Runnable {
     private int screenY;
 
     /**
-     * The player ship
+     * The whole game: the ship, invaders, shelters, bullets and score
      */
-    private PlayerShip playerShip;
+    private GameWorld world;
 
     /**
-     * The player's bullet
+     * Keeps every command the world was given, saved so the session can be replayed
+     * Null when the game was restored, it didn't start from its seed so it can't be replayed
      */
-    private Bullet bullet;
+    private InputRecorder recorder;
 
     /**
-     * The invaders bullets
+     * The world as it was at the last pause, for the activity to keep across a restart
+     * A copy also goes to a file in case the process dies without the activity saving it
      */
-    private Bullet[] invadersBullets = new Bullet[200];
-    private int nextBullet;
-    private int maxInvaderBullets = 10;
+    private volatile byte[] savedState;
+    private static final String SAVED_STATE_FILE = "world.state";
 
     /**
-     * Up to 60 invaders
+     * The level definitions, one wave per line, in the app's assets
      */
-    Invader[] invaders = new Invader[60];
-    int numInvaders = 0;
+    private static final String WAVES_FILE = "waves.txt";
 
     /**
-     * The player's shelters are built from bricks
+     * What the current game looks like so far, and where finished games are kept
      */
-    private DefenceBrick[] bricks = new DefenceBrick[400];
-    private int numBricks;
+    private SessionStats stats = new SessionStats();
+    private StatsStore statsStore;
+    private static final int HIGH_SCORES = 10;
 
     /**
-     * For sound FX
+     * Finished ticks travel from the simulation to the render thread through here
      */
-    private SoundPool soundPool;
-    private int playerExplodeID = -1;
-    private int invaderExplodeID = -1;
-    private int shootID = -1;
-    private int damageShelterID = -1;
-    private int uhID = -1;
-    private int ohID = -1;
+    private SnapshotBuffer snapshots;
+
+    /**
+     * Touches travel from the UI thread to the simulation thread through here, stamped with when they happened
+     */
+    private CommandQueue commands = new CommandQueue(256);
+    private TouchTracker touches;
+
+    /**
+     * How many invader bullets can be in flight at once
+     */
+    private int maxInvaderBullets = 10;
 
     /**
-     * The score
+     * Bullet hell difficulty lets the invaders fill the screen with shots, the activity turns it on
+     */
+    private static final int BULLET_HELL_MAX_BULLETS = 2000;
+
+    /**
+     * For sound FX
      */
-    int score = 0;
+    private SoundPool soundPool;
 
     /**
-     * Lives
+     * Loads the sounds and sprites off the UI thread, the game can't start before it is ready
      */
-    private int lives = 5;
+    private AssetLoader assets;
 
     /**
-     * How menacing should the sound be?
+     * Cold start: from the view being created to every asset being resident, -1 until then
      */
-    private long menaceInterval = 1500;
+    private final long createdNanos = System.nanoTime();
+    private volatile long coldStartNanos = -1;
 
     /**
-     * Which menace sound should play next
+     * SoundPool voices, the mixer shares them out
      */
-    private boolean uhOrOh;
+    private static final int MAX_VOICES = 10;
 
     /**
-     * When did we last play a menacing sound
+     * Plays the sounds on its own thread
      */
-    private long lastMenaceTime = System.currentTimeMillis();
+    private AudioMixer audio;
 
     /**
      * When the we initialize (call new()) on gameView
      * This special constructor method runs
      */
-    public SpaceInvadersView(Context context, int x, int y) {
+    public SpaceInvadersView(Context context, int x, int y, byte[] savedState, boolean bulletHell) {
         /**
          * The next line of code asks the SurfaceView class to set up our object.
          * How kind
@@ -151,509 +225,664 @@ public class SpaceInvadersView extends SurfaceView implements Runnable {
 
         screenX = x;
         screenY = y;
+        touches = new TouchTracker(screenX, screenY, commands);
 
         /**
-         * This SoundPool is deprecated but don't worry
+         * The game itself, seeded from the clock so every game is different
          */
-        soundPool = new SoundPool(10, AudioManager.STREAM_MUSIC, 0);
+        long seed = System.nanoTime();
+        int invaderBullets = bulletHell ? BULLET_HELL_MAX_BULLETS : maxInvaderBullets;
+        String waves = loadWaves();
+        WaveGenerator levels;
         try {
-            /**
-             * Create objects of the 2 required classes
-             */
-            AssetManager assetManager = context.getAssets();
-            AssetFileDescriptor descriptor;
-
-            /**
-             * Load our fix in memory ready for use
-             */
-            descriptor = assetManager.openFd("shoot.ogg");
-            shootID = soundPool.load(descriptor, 0);
-
-            descriptor = assetManager.openFd("invaderexplode.ogg");
-            invaderExplodeID = soundPool.load(descriptor, 0);
-
-            descriptor = assetManager.openFd("damageshelter.ogg");
-            damageShelterID = soundPool.load(descriptor, 0);
-
-            descriptor = assetManager.openFd("playerexplode.ogg");
-            playerExplodeID = soundPool.load(descriptor, 0);
-
-            descriptor = assetManager.openFd("damageshelter.ogg");
-            damageShelterID = soundPool.load(descriptor, 0);
-
-            descriptor = assetManager.openFd("uh.ogg");
-            uhID= soundPool.load(descriptor, 0);
-
-            descriptor = assetManager.openFd("oh.ogg");
-            ohID = soundPool.load(descriptor, 0);
+            levels = WaveGenerator.load(new StringReader(waves), true);
         } catch (IOException e) {
-            /**
-             * Print an error message to the console
-             */
-            Log.e("Error", "Failed to load sound files");
+            Log.e("Error", "Bad " + WAVES_FILE + ", playing the built in levels: " + e.getMessage());
+            waves = WaveGenerator.DEFAULT_WAVES;
+            levels = WaveGenerator.standard();
         }
+        world = new GameWorld(screenX, screenY, invaderBullets, seed, levels);
+        statsStore = StatsStore.shared(context.getFilesDir(), HIGH_SCORES);
+        if (!restoreState(savedState)) {
+            recorder = new InputRecorder(seed, screenX, screenY, invaderBullets, loop.getStepNanos(), waves);
+            stats.start(System.currentTimeMillis());
+        }
+        world.setProfiler(simProfiler);
 
-        prepareLevel();
-    }
-
-    private void prepareLevel() {
         /**
-         * Here we will initialize all the game objects
+         * The stats count an event before a game over saves them
          */
+        world.getEvents().subscribe(stats);
+        world.getEvents().subscribe(gameOverListener);
 
-        /**
-         * Make a new player space ship
-         */
-        playerShip = new PlayerShip(context, screenX, screenY);
+        shelterLayer = new ShelterLayer(Color.argb(255, 26, 128, 182), Color.argb(255, 255, 255, 255));
+        snapshots = new SnapshotBuffer(WorldSnapshot.sizedFor(world), WorldSnapshot.sizedFor(world), WorldSnapshot.sizedFor(world));
 
         /**
-         * Prepare the players bullet
+         * This SoundPool is deprecated but don't worry
          */
-        bullet = new Bullet(screenY);
+        soundPool = new SoundPool(MAX_VOICES, AudioManager.STREAM_MUSIC, 0);
 
         /**
-         * Initialize the invaderBullets array
+         * Losing a life matters most, a chipped shelter least
+         * Durations are rough lengths of the ogg files
          */
-        for (int i = 0; i < invadersBullets.length; i++) {
-            invadersBullets[i] = new Bullet(screenY);
-        }
+        audio = new AudioMixer(soundPool, MAX_VOICES);
+        audio.register(GameEvents.PLAYER_HIT, 3, 0, 1000000000L);
+        audio.register(GameEvents.INVADER_KILLED, 2, 30000000L, 600000000L);
+        audio.register(GameEvents.MENACE_UH, 2, 0, 400000000L);
+        audio.register(GameEvents.MENACE_OH, 2, 0, 400000000L);
+        audio.register(GameEvents.SHOT_FIRED, 1, 30000000L, 300000000L);
+        audio.register(GameEvents.SHELTER_HIT, 0, 60000000L, 300000000L);
+        audio.register(GameEvents.BULLETS_INTERCEPTED, 0, 60000000L, 300000000L);
+        world.getEvents().subscribe(soundListener);
 
         /**
-         * Build an army of invaders
+         * Load our fx and sprites in the background, the first frames show a loading screen
          */
-        numInvaders = 0;
-        for (int column = 0; column < 6; column++) {
-            for (int row = 0; row < 5; row++) {
-                invaders[numInvaders] = new Invader(context, row, column, screenX, screenY);
-                numInvaders++;
-            }
-        }
+        assets = new AssetLoader(context.getAssets(), soundPool, audio, new AssetLoader.Listener() {
+            @Override
+            public void onAssetsReady(long loadNanos) {
+                coldStartNanos = System.nanoTime() - createdNanos;
+                Log.i("Startup", "Assets resident after " + loadNanos / 1000000 + " ms, "
+                        + coldStartNanos / 1000000 + " ms after the view was created");
+                reportFullyDrawn();
 
-        /**
-         * Build the shelters
-         */
-        numBricks = 0;
-        for(int shelterNumber = 0; shelterNumber < 4; shelterNumber++){
-            for(int column = 0; column < 10; column ++ ) {
-                for (int row = 0; row < 5; row++) {
-                    bricks[numBricks] = new DefenceBrick(row, column, shelterNumber, screenX, screenY);
-                    numBricks++;
-                }
+                /**
+                 * The paused screen still says loading
+                 */
+                wakeRenderer();
             }
-        }
-
-        /**
-         * Reset the menace level
-         */
-        menaceInterval = 1000;
+        });
+        assets.loadSound("shoot.ogg", GameEvents.SHOT_FIRED);
+        assets.loadSound("invaderexplode.ogg", GameEvents.INVADER_KILLED);
+        assets.loadSound("damageshelter.ogg", GameEvents.SHELTER_HIT, GameEvents.BULLETS_INTERCEPTED);
+        assets.loadSound("playerexplode.ogg", GameEvents.PLAYER_HIT);
+        assets.loadSound("uh.ogg", GameEvents.MENACE_UH);
+        assets.loadSound("oh.ogg", GameEvents.MENACE_OH);
+        assets.loadSprites(sprites, context.getResources(), screenX, screenY);
+        assets.seal();
     }
 
+    /**
+     * The simulation thread
+     */
     @Override
     public void run() {
+        loop.reset(System.nanoTime());
+
         while (playing) {
             /**
-             * Capture the current time in milliseconds in startFrameTime
+             * Run as many fixed ticks as the elapsed time asks for,
+             * each one first applies whatever the player did up to the moment it stands for
              */
-            long startFrameTime = System.currentTimeMillis();
+            int steps = loop.advance(System.nanoTime());
+            for (int i = 0; i < steps; i++) {
+                applyCommands(loop.getStepTime(i, steps));
+                world.update(loop.getStepNanos());
+            }
 
-            /**
-             * Update the frame
-             */
-            if (!paused) {
-                update();
+            if (steps > 0) {
+                if (!world.isPaused()) {
+                    stats.addTime(steps * loop.getStepNanos());
+                }
+
+                /**
+                 * Hand the result to the render thread
+                 */
+                publishSnapshot();
+                simProfiler.endFrame();
+
+                /**
+                 * Hand the sounds for whatever happened during those ticks to the audio thread
+                 */
+                postEvents();
             }
 
-            /**
-             * Draw the frame
-             */
-            draw();
+            if (world.isPaused() && commands.isEmpty()) {
+                /**
+                 * Nothing moves until the player touches the screen, sleep until then
+                 * A touch or pause() wakes us, the time asleep is not caught up on
+                 */
+                LockSupport.park(this);
+                loop.reset(System.nanoTime());
+            } else {
+                /**
+                 * Sleep until the next tick is due
+                 */
+                LockSupport.parkNanos(loop.getNanosUntilNextStep());
+            }
+        }
+    }
 
+    /**
+     * Hand the world every command that happened up to timeNanos, later ones wait for their tick
+     */
+    private void applyCommands(long timeNanos) {
+        while (commands.peekTime() <= timeNanos) {
+            int command = commands.poll();
             /**
-             * Calculate the fps this frame
-             * We can the use the result to time animation and more
+             * Stay paused until there is something to see and hear,
+             * nothing done on the loading screen may reach the game
              */
-            timeThisFrame = System.currentTimeMillis() - startFrameTime;
-            if (timeThisFrame >= 1) {
-                fps = 1000 / timeThisFrame;
+            if (!assets.isReady()) {
+                continue;
             }
-            /**
-             * We will do something new here towards the end of the project
-             */
-            /**
-             * Play sound based on the menace level
-             */
-            if (!paused) {
-                if ((startFrameTime - lastMenaceTime) > menaceInterval) {
-                    if (uhOrOh) {
-                        /**
-                         * Play uh
-                         */
-                        soundPool.play(uhID, 1, 1, 0, 0, 1);
-                    } else {
-                        /**
-                         * Play oh
-                         */
-                        soundPool.play(ohID, 1, 1, 0, 0, 1);
-                    }
+            if (recorder != null) {
+                recorder.record(world.getTick(), command);
+            }
+            world.handleCommand(command);
+        }
+    }
+
+    private void publishSnapshot() {
+        snapshots.getBack().capture(world, System.nanoTime(), loop.getStepNanos());
+        snapshots.publish();
+        if (renderIdle) {
+            LockSupport.unpark(renderThread);
+        }
+    }
+
+    /**
+     * The render thread, draws as often as the display lets it
+     */
+    private final Runnable renderLoop = new Runnable() {
+        @Override
+        public void run() {
+            while (playing) {
+                long frameStart = System.nanoTime();
+                WorldSnapshot snapshot = snapshots.acquire();
+
+                if (!draw(snapshot, snapshot.getAlpha(frameStart))) {
                     /**
-                     * Reset the last menace time
+                     * No surface yet, don't spin
                      */
-                    lastMenaceTime = System.currentTimeMillis();
+                    LockSupport.parkNanos(loop.getStepNanos());
+                    continue;
+                }
+
+                renderProfiler.lap(FrameProfiler.FRAME, frameStart);
+                renderProfiler.endFrame();
 
+                if (snapshot.paused) {
                     /**
-                     * Alter value of uhOrOh
+                     * A paused game looks the same until the simulation publishes again
+                     * Idle is raised before looking, so a publish in between still wakes us
                      */
-                    uhOrOh = !uhOrOh;
+                    renderIdle = true;
+                    if (playing && !snapshots.hasFresh()) {
+                        LockSupport.park(this);
+                    }
+                    renderIdle = false;
+                } else {
+                    /**
+                     * Don't draw faster than the governor allows, even on a display that refreshes faster
+                     */
+                    LockSupport.parkNanos(governor.getNanosUntilNextFrame(frameStart, System.nanoTime()));
                 }
             }
         }
+    };
+
+    /**
+     * Have the render thread draw again, for changes that don't come with a new snapshot
+     */
+    private void wakeRenderer() {
+        Thread thread = renderThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
     }
 
-    private void update() {
+    /**
+     * Hand whatever happened during the last ticks to the listeners, the sounds go to the audio thread
+     */
+    private void postEvents() {
+        world.getEvents().drain();
+        audio.flush();
+    }
+
+    /**
+     * Plays the sounds of the game
+     */
+    private final GameEvents.Listener soundListener = new GameEvents.Listener() {
+        @Override
+        public void onEvent(GameEvent event) {
+            /**
+             * The menace beat is only atmosphere, it goes first when frames run late
+             */
+            int type = event.getType();
+            boolean menace = type == GameEvents.MENACE_UH || type == GameEvents.MENACE_OH;
+            if (!menace || governor.getLevel() == FrameGovernor.FULL || (menaceCount++ & 1) == 0) {
+                audio.post(type);
+            }
+        }
+    };
+
+    /**
+     * Saves the stats of every finished game in the background
+     * A won wave just leads to the next one
+     */
+    private final GameEvents.Listener gameOverListener = new GameEvents.Listener() {
+        @Override
+        public void onEvent(GameEvent event) {
+            if (event.getType() == GameEvents.GAME_OVER) {
+                statsStore.save(stats.toRecord(world.getFinalScore(), renderProfiler, FrameProfiler.FRAME));
+                stats.start(System.currentTimeMillis());
+            }
+        }
+    };
+
+    /**
+     * Draw one snapshot, returns false if there was no surface to draw on
+     */
+    private boolean draw(WorldSnapshot snapshot, float alpha) {
         /**
-         * Did an invader bump into the side of the screen
+         * Make sure our drawing surface is valid or we crash
          */
-        boolean bumped = false;
+        if (!ourHolder.getSurface().isValid()) {
+            return false;
+        }
 
         /**
-         * Has the player lsot
+         * Lock the canvas ready to draw
          */
-        boolean lost = false;
+        long lockStart = System.nanoTime();
+        canvas = ourHolder.lockCanvas();
+        long drawStart = renderProfiler.lap(FrameProfiler.LOCK_CANVAS, lockStart);
+        if (canvas == null) {
+            return false;
+        }
 
         /**
-         * Move the player's ship
+         * Draw the background and the shelters in one go
          */
-        playerShip.update(fps);
+        shelterLayer.update(snapshot, screenX, screenY);
+        shelterLayer.draw(canvas);
 
         /**
-         * Update the invaders if visible
+         * Choose the brush color for drawing
          */
-        for (int i = 0; i < numInvaders; i++) {
-            if (invaders[i].getVisibility()) {
-                /**
-                 * Move the next invader
-                 */
-                invaders[i].update(fps);
-
-                /**
-                 * Does he want to take a shot?
-                 */
-                if (invaders[i].takeAim(playerShip.getX(), playerShip.getLength())) {
-                    /**
-                     * If so try and spawn a bullet
-                     */
-                    if(invadersBullets[nextBullet].shoot(invaders[i].getX() + invaders[i].getLength() / 2, invaders[i].getY(), bullet.DOWN)) {
-                        /**
-                         * Shot fired
-                         * Prepare for the next shot
-                         */
-                        nextBullet++;
-
-                        /**
-                         * Loop back to the first one if we have reached the last
-                         */
-                        if (nextBullet == maxInvaderBullets) {
-                            /**
-                             * This stops the firing of another bullet until one completes its journey
-                             * Because if bullet 0 is still active shoot returns false
-                             */
-                            nextBullet = 0;
-                        }
-                    }
-                }
-
-                /**
-                 * If that move caused them to bump the screen change bumped to true
-                 */
-                if (invaders[i].getX() > screenX - invaders[i].getLength() || invaders[i].getX() < 0) {
-                    bumped = true;
-                }
-            }
-        }
+        paint.setColor(Color.argb(255, 255, 255, 255));
 
         /**
-         * Update all the invaders bullets if active
+         * Draw the player spaceship
          */
-        for (int i = 0; i < invadersBullets.length; i++) {
-            if (invadersBullets[i].getStatus()) {
-                invadersBullets[i].update(fps);
-            }
-        }
+        float playerX = WorldSnapshot.lerp(snapshot.playerPreviousX, snapshot.playerX, alpha);
+        sprites.draw(canvas, SpriteAtlas.PLAYER_SHIP, playerX, screenY - 50, paint);
 
         /**
-         * Did an invader bump into the edge of the screen
+         * Draw the invaders
          */
-
-        if (lost) {
-            prepareLevel();
+        int invaderSprite = snapshot.uhOrOh ? SpriteAtlas.INVADER1 : SpriteAtlas.INVADER2;
+        for (int i = 0; i < snapshot.invaderCount; i++) {
+            float invaderX = WorldSnapshot.lerp(snapshot.invaderPreviousX[i], snapshot.invaderX[i], alpha);
+            float invaderY = WorldSnapshot.lerp(snapshot.invaderPreviousY[i], snapshot.invaderY[i], alpha);
+            sprites.draw(canvas, invaderSprite, invaderX, invaderY, paint);
         }
 
-        if (bumped) {
-            /**
-             * Move all the invaders down and change direction
-             */
-            for(int i = 0; i < numInvaders; i++) {
-                invaders[i].dropDownAndReverse();
-
-                /**
-                 * Have the invaders landed
-                 */
-                if (invaders[i].getY() > screenY / 10) {
-                    lost = true;
-                }
-            }
-
-
-            /**
-             * Increase the menace level by making the sounds more frequent
-             */
-            menaceInterval = menaceInterval - 80;
+        /**
+         * Draw the players bullets in flight
+         */
+        float shotWidth = snapshot.playerBulletWidth;
+        float shotHeight = snapshot.playerBulletHeight;
+        for (int i = 0; i < snapshot.playerBulletCount; i++) {
+            float left = WorldSnapshot.lerp(snapshot.playerBulletPreviousX[i], snapshot.playerBulletX[i], alpha);
+            float top = WorldSnapshot.lerp(snapshot.playerBulletPreviousY[i], snapshot.playerBulletY[i], alpha);
+            canvas.drawRect(left, top, left + shotWidth, top + shotHeight, paint);
         }
 
         /**
-         * Update the players bullet
+         * Draw the invaders bullets in flight
          */
-        if (bullet.getStatus()) {
-            bullet.update(fps);
+        float bulletWidth = snapshot.invaderBulletWidth;
+        float bulletHeight = snapshot.invaderBulletHeight;
+        for(int i = 0; i < snapshot.invaderBulletCount; i++){
+            float top = WorldSnapshot.lerp(snapshot.invaderBulletPreviousY[i], snapshot.invaderBulletY[i], alpha);
+            float left = snapshot.invaderBulletX[i];
+            canvas.drawRect(left, top, left + bulletWidth, top + bulletHeight, paint);
         }
 
         /**
-         * Has the player's bullet hit the top of the screen
+         * Draw the score and remaining lives
+         * Change the brush color
          */
-        if(bullet.getImpactPointY() < 0){
-            bullet.setInactive();
+        paint.setColor(Color.argb(255, 249, 129, 0));
+        paint.setTextSize(40);
+        if (snapshot.score != hudScore || snapshot.lives != hudLives || snapshot.level != hudLevel) {
+            hudScore = snapshot.score;
+            hudLives = snapshot.lives;
+            hudLevel = snapshot.level;
+            hudText = "Score: " + hudScore + " Lives: " + hudLives + " Wave: " + (hudLevel + 1);
+        }
+        canvas.drawText(assets.isReady() ? hudText : "Loading...", 10, 50, paint);
+
+        if (showProfilerOverlay && governor.getLevel() == FrameGovernor.FULL) {
+            drawProfilerOverlay();
         }
 
         /**
-         * Has an invaders bullet hit the bottom of the screen
+         * Draw everything to the screen
+         * Only the drawing counts towards the frame budget, the canvas calls mostly wait for the display
          */
-        for(int i = 0; i < invadersBullets.length; i++){
-            if(invadersBullets[i].getImpactPointY() > screenY){
-                invadersBullets[i].setInactive();
-            }
-        }
+        long postStart = renderProfiler.lap(FrameProfiler.DRAW, drawStart);
+        governor.onFrame(postStart - drawStart);
+        ourHolder.unlockCanvasAndPost(canvas);
+        renderProfiler.lap(FrameProfiler.UNLOCK_AND_POST, postStart);
+        return true;
+    }
 
+    private void drawProfilerOverlay() {
         /**
-         * Has the player's bullet hit an invader
+         * Sorting the samples isn't free, so the numbers only refresh twice a second or so
          */
-        if(bullet.getStatus()) {
-            for (int i = 0; i < numInvaders; i++) {
-                if (invaders[i].getVisibility()) {
-                    if (RectF.intersects(bullet.getRect(), invaders[i].getRect())) {
-                        invaders[i].setInvisible();
-                        soundPool.play(invaderExplodeID, 1, 1, 0, 0, 1);
-                        bullet.setInactive();
-                        score = score + 10;
-
-                        // Has the player won
-                        if(score == numInvaders * 10){
-                            paused = true;
-                            score = 0;
-                            lives = 3;
-                            prepareLevel();
-                        }
-                    }
-                }
+        if (framesSinceOverlayRefresh++ % 30 == 0) {
+            for (int phase = 0; phase < FrameProfiler.PHASE_COUNT; phase++) {
+                profilerLines[phase] = profilerFor(phase).summary(phase);
             }
         }
 
-        /**
-         * Has an alien bullet hit a shelter brick
-         */
-        for(int i = 0; i < invadersBullets.length; i++){
-            if(invadersBullets[i].getStatus()){
-                for(int j = 0; j < numBricks; j++){
-                    if(bricks[j].getVisibility()){
-                        if(RectF.intersects(invadersBullets[i].getRect(), bricks[j].getRect())){
-                            // A collision has occurred
-                            invadersBullets[i].setInactive();
-                            bricks[j].setInvisible();
-                            soundPool.play(damageShelterID, 1, 1, 0, 0, 1);
-                        }
-                    }
-                }
+        paint.setColor(Color.argb(255, 255, 255, 255));
+        paint.setTextSize(24);
+        for (int phase = 0; phase < FrameProfiler.PHASE_COUNT; phase++) {
+            if (profilerLines[phase] != null) {
+                canvas.drawText(profilerLines[phase], 10, 90 + phase * 28, paint);
             }
+        }
+    }
 
+    /**
+     * The game phases are timed on the simulation thread, the rest on the render thread
+     * The overlay reads the simulation numbers while they are being written, close enough for a readout
+     */
+    private FrameProfiler profilerFor(int phase) {
+        if (phase >= FrameProfiler.UPDATE && phase <= FrameProfiler.INVADER_BULLETS_VS_PLAYER) {
+            return simProfiler;
         }
+        return renderProfiler;
+    }
 
-        /**
-         * Has a player bullet hit a shelter brick
-         */
-        if(bullet.getStatus()){
-            for(int i = 0; i < numBricks; i++){
-                if(bricks[i].getVisibility()){
-                    if(RectF.intersects(bullet.getRect(), bricks[i].getRect())){
-                        // A collision has occurred
-                        bullet.setInactive();
-                        bricks[i].setInvisible();
-                        soundPool.play(damageShelterID, 1, 1, 0, 0, 1);
-                    }
-                }
-            }
+    /**
+     * If SpaceInvadersActivity is paused/stopped shutdown our thread
+     */
+    public void pause() {
+        playing = false;
+        LockSupport.unpark(gameThread);
+        LockSupport.unpark(renderThread);
+        try {
+            gameThread.join();
+            renderThread.join();
+        } catch (InterruptedException e) {
+            Log.e("Error", "Joining thread!");
         }
+        audio.stop();
 
         /**
-         * Has an invader bullet hit the player ship
+         * Leave the frame timings in logcat
          */
-        for(int i = 0; i < invadersBullets.length; i++){
-            if(invadersBullets[i].getStatus()){
-                if(RectF.intersects(playerShip.getRect(), invadersBullets[i].getRect())){
-                    invadersBullets[i].setInactive();
-                    lives --;
-                    soundPool.play(playerExplodeID, 1, 1, 0, 0, 1);
-
-                    // Is it game over?
-                    if(lives == 0){
-                        paused = true;
-                        lives = 3;
-                        score = 0;
-                        prepareLevel();
-
-                    }
-                }
-            }
+        Log.i("FrameProfiler", renderProfiler.getFrameCount() + " frames, " + simProfiler.getFrameCount() + " ticks");
+        for (int phase = 0; phase < FrameProfiler.PHASE_COUNT; phase++) {
+            Log.i("FrameProfiler", profilerFor(phase).summary(phase));
         }
-    }
 
-    private void draw() {
         /**
-         * Make sure our drawing surface is valid or we crash
+         * The game thread has stopped drawing so the sprite memory can go
          */
-        if (ourHolder.getSurface().isValid()) {
-            /**
-             * Lock the canvas ready to draw
-             */
-            canvas = ourHolder.lockCanvas();
-
-            /**
-             * Draw the background color
-             */
-            canvas.drawColor(Color.argb(255, 26, 128, 182));
+        sprites.release();
+        shelterLayer.release();
 
-            /**
-             * Choose the brush color for drawing
-             */
-            paint.setColor(Color.argb(255, 255, 255, 255));
+        saveState();
+        saveRecording();
 
-            /**
-             * Draw the player spaceship
-             */
-            canvas.drawBitmap(playerShip.getBitmap(), playerShip.getX(), screenY - 50, paint);
+        /**
+         * The game may never be resumed, keep what it achieved so far
+         */
+        if (stats.hasActivity()) {
+            statsStore.save(stats.toRecord(world.getScore(), renderProfiler, FrameProfiler.FRAME));
+        }
+    }
 
-            /**
-             * Draw the invaders
-             */
-            for (int i = 0; i < numInvaders; i++) {
-                if (invaders[i].getVisibility()) {
-                    if (uhOrOh) {
-                        canvas.drawBitmap(invaders[i].getBitmap(), invaders[i].getX(), invaders[i].getY(), paint);
-                    } else {
-                        canvas.drawBitmap(invaders[i].getBitmap2(), invaders[i].getX(), invaders[i].getY(), paint);
-                    }
+    /**
+     * The text of the level definitions, or the built in ones when the asset can't be read
+     * Read once when the view is made, it is a few short lines
+     */
+    private String loadWaves() {
+        StringBuilder text = new StringBuilder();
+        try {
+            Reader reader = new InputStreamReader(context.getAssets().open(WAVES_FILE), "UTF-8");
+            try {
+                char[] buffer = new char[1024];
+                int read;
+                while ((read = reader.read(buffer)) > 0) {
+                    text.append(buffer, 0, read);
                 }
+            } finally {
+                reader.close();
             }
+        } catch (IOException e) {
+            Log.e("Error", "Failed to load " + WAVES_FILE + ", playing the built in levels");
+            return WaveGenerator.DEFAULT_WAVES;
+        }
+        return text.toString();
+    }
 
-            /**
-             * Draw the bricks if visible
-             */
-            for(int i = 0; i < numBricks; i++){
-                if(bricks[i].getVisibility()) {
-                    canvas.drawRect(bricks[i].getRect(), paint);
+    /**
+     * Carry on the game the bytes hold, or the one left in the state file when there are none
+     * The session stats follow the world, the game keeps its id so its records replace each other
+     * Returns false and leaves the fresh world alone when there is nothing usable to restore
+     */
+    private boolean restoreState(byte[] state) {
+        long start = System.nanoTime();
+        File file = new File(context.getFilesDir(), SAVED_STATE_FILE);
+        try {
+            InputStream in;
+            if (state != null) {
+                in = new ByteArrayInputStream(state);
+            } else if (file.isFile()) {
+                in = new BufferedInputStream(new FileInputStream(file));
+            } else {
+                return false;
+            }
+            try {
+                world.restoreState(in);
+                try {
+                    stats.readState(new DataInputStream(in));
+                } catch (IOException e) {
+                    /**
+                     * A state saved without its stats still restores, as a game of its own
+                     */
+                    stats.start(System.currentTimeMillis());
                 }
+            } finally {
+                in.close();
             }
+        } catch (IOException e) {
+            Log.e("Error", "Failed to restore the game, starting a new one");
+            return false;
+        }
+        Log.i("Startup", "Game restored at tick " + world.getTick() + " in " + (System.nanoTime() - start) / 1000 + " us");
+        return true;
+    }
 
-            /**
-             * Draw the players bullet if active
-             */
-            if (bullet.getStatus()) {
-                canvas.drawRect(bullet.getRect(), paint);
-            }
+    /**
+     * Snapshot the world for the activity, and write it to a file in the background
+     * Only called once the simulation thread has stopped
+     */
+    private void saveState() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try {
+            world.saveState(bytes);
+            stats.writeState(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            Log.e("Error", "Failed to save the game");
+            return;
+        }
+        final byte[] state = bytes.toByteArray();
+        savedState = state;
 
-            /**
-             * Draw the invaders bullets if active
-             */
-            for(int i = 0; i < invadersBullets.length; i++){
-                if(invadersBullets[i].getStatus()) {
-                    canvas.drawRect(invadersBullets[i].getRect(), paint);
+        final File file = new File(context.getFilesDir(), SAVED_STATE_FILE);
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                /**
+                 * A whole file is renamed over the old one, a crash never leaves half a state behind
+                 */
+                File temporary = new File(file.getPath() + ".tmp");
+                try {
+                    OutputStream out = new FileOutputStream(temporary);
+                    try {
+                        out.write(state);
+                    } finally {
+                        out.close();
+                    }
+                    if (!temporary.renameTo(file)) {
+                        throw new IOException("Failed to replace " + file);
+                    }
+                } catch (IOException e) {
+                    Log.e("Error", "Failed to write the saved game");
                 }
             }
+        }, "save").start();
+    }
 
-            /**
-             * Draw the score and remaining lives
-             * Change the brush color
-             */
-            paint.setColor(Color.argb(255, 249, 129, 0));
-            paint.setTextSize(40);
-            canvas.drawText("Score: " + score + " Lives: " + lives, 10, 50, paint);
+    /**
+     * The world as it was at the last pause, null before the first one
+     */
+    public byte[] getSavedState() {
+        return savedState;
+    }
 
-            /**
-             * Draw everything to the screen
-             */
-            ourHolder.unlockCanvasAndPost(canvas);
+    /**
+     * Keep the session so far on disk, replaying it gives the same game
+     */
+    private void saveRecording() {
+        if (recorder == null) {
+            return;
+        }
+        File directory = new File(context.getFilesDir(), "replays");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.e("Error", "Failed to create " + directory);
+            return;
+        }
+        File file = new File(directory, "last-session.bin");
+        try {
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+            try {
+                recorder.writeTo(out, world.getTick(), world.checksum());
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            Log.e("Error", "Failed to save the recording");
         }
     }
 
     /**
-     * If SpaceInvadersActivity is paused/stopped shutdown our thread
+     * Time from the view being created until every asset was resident, -1 while still loading
      */
-    public void pause() {
-        playing = false;
-        try {
-            gameThread.join();
-        } catch (InterruptedException e) {
-            Log.e("Error", "Joining thread!");
+    public long getColdStartNanos() {
+        return coldStartNanos;
+    }
+
+    /**
+     * Let the system know the first real frame is up, it shows as "Fully drawn" in the startup timings
+     */
+    private void reportFullyDrawn() {
+        if (Build.VERSION.SDK_INT >= 19 && context instanceof Activity) {
+            final Activity activity = (Activity) context;
+            activity.runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    activity.reportFullyDrawn();
+                }
+            });
         }
     }
 
     /**
-     * If SpaceInvadersActivity is started then start our thread
+     * If SpaceInvadersActivity is started then start our threads
      */
     public void resume() {
+        /**
+         * Only does work if pause() released the atlas
+         */
+        assets.reloadSprites(sprites, context.getResources(), screenX, screenY);
+
+        /**
+         * Neither thread runs yet, so the renderer has something to show from its first frame
+         */
+        publishSnapshot();
+
         playing = true;
-        gameThread = new Thread(this);
+        governor.reset();
+        audio.start();
+        gameThread = new Thread(this, "simulation");
+        renderThread = new Thread(renderLoop, "render");
         gameThread.start();
+        renderThread.start();
     }
 
     /**
      * The SurfaceView class implements onTouchListener
      * So we can override this method and detect screen touches.
+     * Every finger and every sample the system batched into the event goes to the TouchTracker,
+     * which queues what changed for the simulation to apply on the right tick.
      */
     @Override
     public boolean onTouchEvent(MotionEvent motionEvent) {
-        switch (motionEvent.getAction() & MotionEvent.ACTION_MASK) {
+        /**
+         * Event times are SystemClock.uptimeMillis(), the simulation counts in System.nanoTime()
+         */
+        long now = System.nanoTime();
+        long offset = now - SystemClock.uptimeMillis() * 1000000L;
+        long time = Math.min(now, motionEvent.getEventTime() * 1000000L + offset);
+
+        switch (motionEvent.getActionMasked()) {
             /**
-             * Pplayer has touched the screen
+             * Pplayer has touched the screen, with a first finger or another one
              */
             case MotionEvent.ACTION_DOWN:
-                paused = false;
+            case MotionEvent.ACTION_POINTER_DOWN: {
+                int index = motionEvent.getActionIndex();
+                touches.down(motionEvent.getPointerId(index), motionEvent.getX(index), motionEvent.getY(index), time);
+                break;
+            }
 
-                if(motionEvent.getY() > screenY - screenY / 8) {
-                    if (motionEvent.getX() > screenX / 2) {
-                        playerShip.setMovementsState(playerShip.RIGHT);
-                    } else {
-                        playerShip.setMovementsState(playerShip.LEFT);
+            /**
+             * Fingers slid, the samples since the last event come first
+             */
+            case MotionEvent.ACTION_MOVE: {
+                int pointers = motionEvent.getPointerCount();
+                for (int h = 0; h < motionEvent.getHistorySize(); h++) {
+                    long sampleTime = Math.min(now, motionEvent.getHistoricalEventTime(h) * 1000000L + offset);
+                    for (int p = 0; p < pointers; p++) {
+                        touches.move(motionEvent.getPointerId(p), motionEvent.getHistoricalX(p, h),
+                                motionEvent.getHistoricalY(p, h), sampleTime);
                     }
-
                 }
-
-                if(motionEvent.getY() < screenY - screenY / 8) {
-                    // Shots fired
-                    if(bullet.shoot(playerShip.getX()+
-                            playerShip.getLength()/2,screenY,bullet.UP)){
-                        soundPool.play(shootID, 1, 1, 0, 0, 1);
-                    }
+                for (int p = 0; p < pointers; p++) {
+                    touches.move(motionEvent.getPointerId(p), motionEvent.getX(p), motionEvent.getY(p), time);
                 }
-            break;
+                break;
+            }
 
             /**
-             * Player has remove finger from screen
+             * Player has remove a finger from screen
              */
             case MotionEvent.ACTION_UP:
-                if(motionEvent.getY() > screenY - screenY / 10) {
-                    playerShip.setMovementsState(playerShip.STOPPED);
-                }
-            break;
+            case MotionEvent.ACTION_POINTER_UP:
+                touches.up(motionEvent.getPointerId(motionEvent.getActionIndex()), time);
+                break;
+
+            case MotionEvent.ACTION_CANCEL:
+                touches.cancel(time);
+                break;
         }
+
+        /**
+         * The simulation sleeps while the game is paused
+         */
+        LockSupport.unpark(gameThread);
         return true;
     }
-}
\ No newline at end of file
+}
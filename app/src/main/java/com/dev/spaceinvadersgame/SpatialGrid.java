@@ -0,0 +1,183 @@
+package com.dev.spaceinvadersgame;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid used as the broad phase of collision detection.
+ * Items are identified by their index in the owner's array (a bullet number)
+ * and are linked into every cell their bounds overlap.
+ * A query only returns the items sharing a cell with the searched area,
+ * the caller then runs the exact rectangle test on those few candidates.
+ */
+public class SpatialGrid {
+    private final float cellWidth;
+    private final float cellHeight;
+    private final int columns;
+    private final int rows;
+
+    /**
+     * First node of each cell, -1 when the cell is empty
+     */
+    private final int[] cellHead;
+
+    /**
+     * Nodes of the per cell linked lists
+     */
+    private int[] nodeItem;
+    private int[] nodeNext;
+    private int nodeCount;
+
+    /**
+     * Which item ids are currently in the grid
+     */
+    private boolean[] present;
+
+    /**
+     * Used to report an item only once when it spans several cells
+     * A long never wraps, so the stamps are never wiped
+     */
+    private long[] queryStamp;
+    private long stamp;
+
+    /**
+     * How many candidates have been handed out since the last reset, for profiling
+     */
+    private long candidateCount;
+
+    public SpatialGrid(float worldWidth, float worldHeight, float cellWidth, float cellHeight, int capacity) {
+        this.cellWidth = Math.max(1, cellWidth);
+        this.cellHeight = Math.max(1, cellHeight);
+        columns = Math.max(1, (int) Math.ceil(worldWidth / this.cellWidth));
+        rows = Math.max(1, (int) Math.ceil(worldHeight / this.cellHeight));
+
+        cellHead = new int[columns * rows];
+        Arrays.fill(cellHead, -1);
+
+        /**
+         * An item no bigger than a cell touches at most four of them
+         */
+        nodeItem = new int[capacity * 4];
+        nodeNext = new int[capacity * 4];
+
+        present = new boolean[capacity];
+        queryStamp = new long[capacity];
+    }
+
+    public int getCapacity() {
+        return present.length;
+    }
+
+    /**
+     * Make room for ids up to capacity - 1, only ever grows
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > present.length) {
+            present = Arrays.copyOf(present, capacity);
+            queryStamp = Arrays.copyOf(queryStamp, capacity);
+        }
+    }
+
+    /**
+     * Empty the grid, done before a full rebuild
+     * Only the items inserted since the last clear are forgotten, the cost follows them and not the capacity
+     */
+    public void clear() {
+        Arrays.fill(cellHead, -1);
+        for (int node = 0; node < nodeCount; node++) {
+            present[nodeItem[node]] = false;
+        }
+        nodeCount = 0;
+    }
+
+    public void insert(int id, float left, float top, float right, float bottom) {
+        present[id] = true;
+
+        int firstColumn = columnOf(left);
+        int lastColumn = columnOf(right);
+        int firstRow = rowOf(top);
+        int lastRow = rowOf(bottom);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                if (nodeCount == nodeItem.length) {
+                    grow();
+                }
+                nodeItem[nodeCount] = id;
+                nodeNext[nodeCount] = cellHead[cell];
+                cellHead[cell] = nodeCount;
+                nodeCount++;
+            }
+        }
+    }
+
+    /**
+     * Take an item out of the grid
+     * Its nodes stay linked but are skipped by queries until the next clear
+     */
+    public void remove(int id) {
+        present[id] = false;
+    }
+
+    public boolean contains(int id) {
+        return present[id];
+    }
+
+    /**
+     * Collect the ids of items sharing a cell with the given area into out
+     * Returns how many were written
+     */
+    public int query(float left, float top, float right, float bottom, int[] out) {
+        stamp++;
+
+        int found = 0;
+        int firstColumn = columnOf(left);
+        int lastColumn = columnOf(right);
+        int firstRow = rowOf(top);
+        int lastRow = rowOf(bottom);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                for (int node = cellHead[row * columns + column]; node != -1; node = nodeNext[node]) {
+                    int id = nodeItem[node];
+                    if (present[id] && queryStamp[id] != stamp) {
+                        queryStamp[id] = stamp;
+                        out[found++] = id;
+                    }
+                }
+            }
+        }
+
+        candidateCount += found;
+        return found;
+    }
+
+    public long getCandidateCount() {
+        return candidateCount;
+    }
+
+    public void resetCandidateCount() {
+        candidateCount = 0;
+    }
+
+    private int columnOf(float x) {
+        int column = (int) (x / cellWidth);
+        if (column < 0) {
+            return 0;
+        }
+        return column >= columns ? columns - 1 : column;
+    }
+
+    private int rowOf(float y) {
+        int row = (int) (y / cellHeight);
+        if (row < 0) {
+            return 0;
+        }
+        return row >= rows ? rows - 1 : row;
+    }
+
+    private void grow() {
+        nodeItem = Arrays.copyOf(nodeItem, nodeItem.length * 2 + 4);
+        nodeNext = Arrays.copyOf(nodeNext, nodeNext.length * 2 + 4);
+    }
+}
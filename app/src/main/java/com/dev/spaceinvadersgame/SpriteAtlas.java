@@ -0,0 +1,143 @@
+package com.dev.spaceinvadersgame;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * All the game sprites decoded and scaled once, packed side by side in a single bitmap.
+ * A sprite is drawn by copying its source rectangle out of the atlas.
+ * Nothing is decoded again until the screen size changes or the atlas is released.
+ * Loading may run on a background thread while another thread draws,
+ * the atlas only becomes visible to draw() once it is complete.
+ */
+public class SpriteAtlas {
+    /**
+     * Which sprite to draw
+     */
+    public static final int INVADER1 = 0;
+    public static final int INVADER2 = 1;
+    public static final int PLAYER_SHIP = 2;
+
+    private static final int[] RESOURCES = {R.drawable.invader1, R.drawable.invader2, R.drawable.playership};
+
+    /**
+     * Empty pixels between sprites so scaling never bleeds a neighbour in
+     */
+    private static final int GUTTER = 1;
+
+    private volatile Bitmap atlas;
+    private final Rect[] sources = new Rect[RESOURCES.length];
+
+    /**
+     * Reused for every draw call
+     */
+    private final RectF destination = new RectF();
+
+    /**
+     * The screen size the atlas was built for
+     */
+    private int loadedScreenX;
+    private int loadedScreenY;
+
+    public SpriteAtlas() {
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = new Rect();
+        }
+    }
+
+    /**
+     * Decode, scale and pack the sprites for this screen size
+     * Does nothing if that work was already done
+     */
+    public synchronized void load(Resources resources, int screenX, int screenY) {
+        if (isLoaded() && loadedScreenX == screenX && loadedScreenY == screenY) {
+            return;
+        }
+        release();
+
+        /**
+         * The same sizes Invader and PlayerShip use for their hit boxes
+         */
+        int invaderWidth = screenX / 20;
+        int invaderHeight = screenY / 20;
+        int shipWidth = screenX / 10;
+        int shipHeight = screenY / 10;
+
+        int[] widths = {invaderWidth, invaderWidth, shipWidth};
+        int[] heights = {invaderHeight, invaderHeight, shipHeight};
+
+        int atlasWidth = 0;
+        int atlasHeight = 0;
+        for (int i = 0; i < RESOURCES.length; i++) {
+            atlasWidth += widths[i] + GUTTER;
+            atlasHeight = Math.max(atlasHeight, heights[i]);
+        }
+
+        Bitmap packed = Bitmap.createBitmap(Math.max(1, atlasWidth), Math.max(1, atlasHeight), Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(packed);
+
+        int left = 0;
+        for (int i = 0; i < RESOURCES.length; i++) {
+            sources[i].set(left, 0, left + widths[i], heights[i]);
+
+            Bitmap decoded = BitmapFactory.decodeResource(resources, RESOURCES[i]);
+            Bitmap scaled = Bitmap.createScaledBitmap(decoded, Math.max(1, widths[i]), Math.max(1, heights[i]), false);
+            canvas.drawBitmap(scaled, left, 0, null);
+
+            /**
+             * The atlas holds its own copy so the temporaries can go straight away
+             */
+            if (scaled != decoded) {
+                scaled.recycle();
+            }
+            decoded.recycle();
+
+            left += widths[i] + GUTTER;
+        }
+
+        loadedScreenX = screenX;
+        loadedScreenY = screenY;
+
+        /**
+         * Publish it last, draw() sees either no atlas or a finished one
+         */
+        atlas = packed;
+    }
+
+    public boolean isLoaded() {
+        Bitmap current = atlas;
+        return current != null && !current.isRecycled();
+    }
+
+    /**
+     * Free the atlas pixels, called when the game goes into the background
+     */
+    public synchronized void release() {
+        if (atlas != null) {
+            atlas.recycle();
+            atlas = null;
+        }
+    }
+
+    /**
+     * Draw a sprite with its top left corner at x, y
+     */
+    public void draw(Canvas canvas, int sprite, float x, float y, Paint paint) {
+        Bitmap current = atlas;
+        if (current == null || current.isRecycled()) {
+            return;
+        }
+
+        Rect source = sources[sprite];
+        destination.left = x;
+        destination.top = y;
+        destination.right = x + source.width();
+        destination.bottom = y + source.height();
+        canvas.drawBitmap(current, source, destination, paint);
+    }
+}
@@ -0,0 +1,246 @@
+package com.dev.spaceinvadersgame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Keeps the stats of past games on disk.
+ * Every save is appended to a log file, which costs one small write.
+ * Once the log holds enough records it is compacted: merged into an index of the best
+ * games by score, written to a temporary file and renamed over the old one, then the log is emptied.
+ * A crash at any point loses at most the record being written.
+ *
+ * All file work happens on a thread of its own, callers never wait on the disk.
+ * Failures are reported through the Future returned by save().
+ * The game uses one store for the whole process, see shared(), so only one thread ever writes the files.
+ */
+public class StatsStore {
+    private static final int MAGIC = 0x53495354;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 6;
+
+    /**
+     * Compact once the log holds this many records
+     */
+    private static final int COMPACT_EVERY = 32;
+
+    private static final String LOG = "sessions.log";
+    private static final String INDEX = "highscores.bin";
+
+    private final File log;
+    private final File index;
+    private final int topN;
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "stats");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * Records in the log, only touched by the writer thread, -1 until counted
+     */
+    private int logRecords = -1;
+
+    private static StatsStore shared;
+
+    public StatsStore(File directory, int topN) {
+        log = new File(directory, LOG);
+        index = new File(directory, INDEX);
+        this.topN = topN;
+    }
+
+    /**
+     * The store of the process, made on first use
+     * The activity and its view are recreated on every rotation, a store each would leak writer threads
+     * and let two of them append to the same log
+     */
+    public static synchronized StatsStore shared(File directory, int topN) {
+        if (shared == null) {
+            shared = new StatsStore(directory, topN);
+        }
+        return shared;
+    }
+
+    /**
+     * Queue a record to be appended, returns straight away
+     */
+    public Future<Void> save(final SessionRecord record) {
+        return writer.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                append(record);
+                if (logRecords >= COMPACT_EVERY) {
+                    compact();
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * The best games, highest score first, including the ones not compacted yet
+     * Reads the files, so don't call it from a thread that draws or simulates
+     */
+    public List<SessionRecord> getHighScores() throws IOException {
+        List<SessionRecord> records = readRecords(index);
+        records.addAll(readRecords(log));
+        return best(records);
+    }
+
+    /**
+     * Stop the writer thread once the queued writes are done
+     */
+    public void close() {
+        writer.shutdown();
+    }
+
+    private void append(SessionRecord record) throws IOException {
+        if (logRecords < 0) {
+            logRecords = log.length() < HEADER_SIZE ? 0 : (int) ((log.length() - HEADER_SIZE) / SessionRecord.SIZE);
+
+            /**
+             * Cut off a record left half written by a crash, or the next ones would be misaligned
+             */
+            long whole = log.length() < HEADER_SIZE ? 0 : HEADER_SIZE + (long) logRecords * SessionRecord.SIZE;
+            if (log.exists() && log.length() != whole) {
+                RandomAccessFile file = new RandomAccessFile(log, "rw");
+                try {
+                    file.setLength(whole);
+                } finally {
+                    file.close();
+                }
+            }
+        }
+
+        boolean fresh = log.length() == 0;
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(log, true)));
+        try {
+            if (fresh) {
+                writeHeader(out);
+            }
+            record.write(out);
+        } finally {
+            out.close();
+        }
+        logRecords++;
+    }
+
+    /**
+     * Fold the log into the index and empty it
+     */
+    void compact() throws IOException {
+        List<SessionRecord> records = readRecords(index);
+        records.addAll(readRecords(log));
+        List<SessionRecord> best = best(records);
+
+        File temporary = new File(index.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+        try {
+            writeHeader(out);
+            for (SessionRecord record : best) {
+                record.write(out);
+            }
+        } finally {
+            out.close();
+        }
+
+        /**
+         * The new index is complete before it replaces the old one,
+         * and the log only goes once the index holds its records
+         */
+        if (!temporary.renameTo(index)) {
+            throw new IOException("Failed to replace " + index);
+        }
+        if (log.exists() && !log.delete()) {
+            throw new IOException("Failed to empty " + log);
+        }
+        logRecords = 0;
+    }
+
+    /**
+     * Keep the latest save of each game, then the topN highest scores
+     */
+    private List<SessionRecord> best(List<SessionRecord> records) {
+        List<SessionRecord> latest = new ArrayList<>();
+        for (SessionRecord record : records) {
+            boolean replaced = false;
+            for (int i = 0; i < latest.size(); i++) {
+                if (latest.get(i).gameId == record.gameId) {
+                    if (record.durationNanos >= latest.get(i).durationNanos) {
+                        latest.set(i, record);
+                    }
+                    replaced = true;
+                    break;
+                }
+            }
+            if (!replaced) {
+                latest.add(record);
+            }
+        }
+
+        Collections.sort(latest, new Comparator<SessionRecord>() {
+            @Override
+            public int compare(SessionRecord a, SessionRecord b) {
+                if (a.score != b.score) {
+                    return a.score > b.score ? -1 : 1;
+                }
+                return a.gameId < b.gameId ? -1 : (a.gameId == b.gameId ? 0 : 1);
+            }
+        });
+        return latest.size() > topN ? new ArrayList<>(latest.subList(0, topN)) : latest;
+    }
+
+    private static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+    }
+
+    /**
+     * Every whole record of a file, a record cut short by a crash is ignored
+     */
+    private static List<SessionRecord> readRecords(File file) throws IOException {
+        List<SessionRecord> records = new ArrayList<>();
+        if (!file.exists()) {
+            return records;
+        }
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new IOException("Unknown stats file " + file);
+            }
+            long whole = (file.length() - HEADER_SIZE) / SessionRecord.SIZE;
+            for (long i = 0; i < whole; i++) {
+                records.add(SessionRecord.read(in));
+            }
+        } catch (EOFException e) {
+            /**
+             * Empty or cut short before the header ended, nothing to read
+             */
+        } finally {
+            in.close();
+        }
+        return records;
+    }
+}
@@ -0,0 +1,177 @@
+package com.dev.spaceinvadersgame;
+
+/**
+ * Turns every finger on the screen into InputCommand values for the simulation.
+ * A finger gets its job from where it first lands: in the bottom eighth of the screen it steers the ship,
+ * towards the side of the screen it is on, anywhere above that it holds the trigger.
+ * It keeps that job until it lifts, so a steering finger can slide across the middle to turn the ship round
+ * and the player can steer and shoot with two thumbs at once.
+ *
+ * Only changes are sent: the ship follows the steering finger that landed last and stops when none is left,
+ * the trigger is released when the last shooting finger lifts. Every command is stamped with the time of the
+ * touch sample that caused it, historical samples included, and the simulation applies it on the tick
+ * that time falls into.
+ *
+ * Plain Java, called on the UI thread only; SpaceInvadersView feeds it the MotionEvents.
+ */
+public class TouchTracker {
+    /**
+     * Fingers followed at once, any more are ignored until one lifts
+     */
+    static final int MAX_POINTERS = 10;
+
+    private static final int FREE = -1;
+
+    private final CommandQueue commands;
+
+    /**
+     * A finger landing below this line steers, the strip the ship moves along
+     */
+    private final float steeringTop;
+    private final float middle;
+
+    /**
+     * Per finger slot: the pointer id or FREE, is it steering, MOVE_LEFT or MOVE_RIGHT, and when it landed
+     */
+    private final int[] ids = new int[MAX_POINTERS];
+    private final boolean[] steering = new boolean[MAX_POINTERS];
+    private final int[] directions = new int[MAX_POINTERS];
+    private final long[] landed = new long[MAX_POINTERS];
+    private long landings;
+
+    private int shootingFingers;
+
+    /**
+     * The last movement command sent
+     */
+    private int movement = InputCommand.STOP;
+
+    public TouchTracker(int screenX, int screenY, CommandQueue commands) {
+        this.commands = commands;
+        steeringTop = screenY - screenY / 8;
+        middle = screenX / 2;
+        for (int slot = 0; slot < MAX_POINTERS; slot++) {
+            ids[slot] = FREE;
+        }
+    }
+
+    /**
+     * A finger touched the screen
+     */
+    public void down(int id, float x, float y, long timeNanos) {
+        /**
+         * Any touch starts the game
+         */
+        commands.offer(InputCommand.START, timeNanos);
+
+        int slot = find(FREE);
+        if (slot < 0 || find(id) >= 0) {
+            return;
+        }
+        ids[slot] = id;
+        landed[slot] = landings++;
+        steering[slot] = y > steeringTop;
+        if (steering[slot]) {
+            directions[slot] = direction(x);
+            /**
+             * Always sent, the ship may have been stopped by a new level since the last one
+             */
+            movement = FREE;
+            steer(timeNanos);
+        } else {
+            shootingFingers++;
+            commands.offer(InputCommand.HOLD_FIRE, timeNanos);
+        }
+    }
+
+    /**
+     * A finger is at x, y, called for every sample of a move, oldest first
+     */
+    public void move(int id, float x, float y, long timeNanos) {
+        int slot = find(id);
+        if (slot < 0 || !steering[slot]) {
+            return;
+        }
+        int direction = direction(x);
+        if (direction != directions[slot]) {
+            directions[slot] = direction;
+            steer(timeNanos);
+        }
+    }
+
+    /**
+     * A finger left the screen
+     */
+    public void up(int id, long timeNanos) {
+        int slot = find(id);
+        if (slot < 0) {
+            return;
+        }
+        ids[slot] = FREE;
+        if (steering[slot]) {
+            steer(timeNanos);
+        } else {
+            shootingFingers--;
+            if (shootingFingers == 0) {
+                commands.offer(InputCommand.RELEASE_FIRE, timeNanos);
+            }
+        }
+    }
+
+    /**
+     * The system took the gesture away, every finger is gone
+     */
+    public void cancel(long timeNanos) {
+        for (int slot = 0; slot < MAX_POINTERS; slot++) {
+            ids[slot] = FREE;
+        }
+        steer(timeNanos);
+        if (shootingFingers > 0) {
+            shootingFingers = 0;
+            commands.offer(InputCommand.RELEASE_FIRE, timeNanos);
+        }
+    }
+
+    /**
+     * How many fingers are followed
+     */
+    public int getPointerCount() {
+        int count = 0;
+        for (int slot = 0; slot < MAX_POINTERS; slot++) {
+            if (ids[slot] != FREE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int find(int id) {
+        for (int slot = 0; slot < MAX_POINTERS; slot++) {
+            if (ids[slot] == id) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int direction(float x) {
+        return x > middle ? InputCommand.MOVE_RIGHT : InputCommand.MOVE_LEFT;
+    }
+
+    /**
+     * Send the movement of the newest steering finger if it changed
+     */
+    private void steer(long timeNanos) {
+        int newest = -1;
+        for (int slot = 0; slot < MAX_POINTERS; slot++) {
+            if (ids[slot] != FREE && steering[slot] && (newest < 0 || landed[slot] > landed[newest])) {
+                newest = slot;
+            }
+        }
+        int wanted = newest < 0 ? InputCommand.STOP : directions[newest];
+        if (wanted != movement) {
+            movement = wanted;
+            commands.offer(wanted, timeNanos);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.dev.spaceinvadersgame;
+
+/**
+ * What one level looks like: the size of the invader formation, how fast it moves and shoots,
+ * how the shelters are built and which Weapon the player gets. Positions still follow from the screen size,
+ * a wave only says how many of everything there is.
+ *
+ * Waves can be written as one line of text, keys left out keep their CLASSIC value:
+ * invaders=6x5 speed=40 speedup=1.18 fire=1 shelters=4 bricks=10x5 weapon=classic
+ */
+public class Wave {
+    /**
+     * The original game: 6 by 5 invaders and 4 shelters of 10 by 5 bricks
+     */
+    public static final Wave CLASSIC = new Wave(6, 5, 40, 1.18f, 1, 4, 10, 5);
+
+    /**
+     * Invader columns and rows
+     */
+    final int columns;
+    final int rows;
+
+    /**
+     * Pixels per second at the start, and how much faster after every drop
+     */
+    final float speed;
+    final float speedUp;
+
+    /**
+     * How often the invaders shoot, 1 is the original rate
+     */
+    final float fireRate;
+
+    /**
+     * How many shelters and how many columns and rows of bricks each
+     */
+    final int shelters;
+    final int shelterColumns;
+    final int shelterRows;
+
+    /**
+     * The player's gun
+     */
+    final Weapon weapon;
+
+    public Wave(int columns, int rows, float speed, float speedUp, float fireRate, int shelters, int shelterColumns, int shelterRows) {
+        this(columns, rows, speed, speedUp, fireRate, shelters, shelterColumns, shelterRows, Weapon.CLASSIC);
+    }
+
+    public Wave(int columns, int rows, float speed, float speedUp, float fireRate, int shelters, int shelterColumns, int shelterRows,
+                Weapon weapon) {
+        if (columns < 1 || rows < 1 || shelters < 0 || shelterColumns < 0 || shelterRows < 0) {
+            throw new IllegalArgumentException("Invalid wave " + columns + "x" + rows + " shelters " + shelters);
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.speed = speed;
+        this.speedUp = speedUp;
+        this.fireRate = fireRate;
+        this.shelters = shelters;
+        this.shelterColumns = shelterColumns;
+        this.shelterRows = shelterRows;
+        this.weapon = weapon;
+    }
+
+    /**
+     * Read a wave from its text form
+     */
+    public static Wave parse(String line) {
+        int columns = CLASSIC.columns;
+        int rows = CLASSIC.rows;
+        float speed = CLASSIC.speed;
+        float speedUp = CLASSIC.speedUp;
+        float fireRate = CLASSIC.fireRate;
+        int shelters = CLASSIC.shelters;
+        int shelterColumns = CLASSIC.shelterColumns;
+        int shelterRows = CLASSIC.shelterRows;
+        Weapon weapon = CLASSIC.weapon;
+
+        for (String token : line.trim().split("\\s+")) {
+            int equals = token.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + token);
+            }
+            String key = token.substring(0, equals);
+            String value = token.substring(equals + 1);
+            try {
+                if (key.equals("invaders")) {
+                    columns = Integer.parseInt(value.substring(0, value.indexOf('x')));
+                    rows = Integer.parseInt(value.substring(value.indexOf('x') + 1));
+                } else if (key.equals("speed")) {
+                    speed = Float.parseFloat(value);
+                } else if (key.equals("speedup")) {
+                    speedUp = Float.parseFloat(value);
+                } else if (key.equals("fire")) {
+                    fireRate = Float.parseFloat(value);
+                } else if (key.equals("shelters")) {
+                    shelters = Integer.parseInt(value);
+                } else if (key.equals("bricks")) {
+                    shelterColumns = Integer.parseInt(value.substring(0, value.indexOf('x')));
+                    shelterRows = Integer.parseInt(value.substring(value.indexOf('x') + 1));
+                } else if (key.equals("weapon")) {
+                    weapon = Weapon.byName(value);
+                } else {
+                    throw new IllegalArgumentException("Unknown wave key " + key);
+                }
+            } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Bad value for " + key + ": " + value);
+            }
+        }
+        return new Wave(columns, rows, speed, speedUp, fireRate, shelters, shelterColumns, shelterRows, weapon);
+    }
+
+    /**
+     * The same wave with another formation size
+     */
+    public Wave withInvaders(int columns, int rows) {
+        return new Wave(columns, rows, speed, speedUp, fireRate, shelters, shelterColumns, shelterRows, weapon);
+    }
+
+    /**
+     * The same wave with another gun
+     */
+    public Wave withWeapon(Weapon weapon) {
+        return new Wave(columns, rows, speed, speedUp, fireRate, shelters, shelterColumns, shelterRows, weapon);
+    }
+
+    public int getInvaderCount() {
+        return columns * rows;
+    }
+
+    public int getBrickCount() {
+        return shelters * shelterColumns * shelterRows;
+    }
+
+    @Override
+    public String toString() {
+        return "invaders=" + columns + "x" + rows + " speed=" + speed + " speedup=" + speedUp + " fire=" + fireRate
+                + " shelters=" + shelters + " bricks=" + shelterColumns + "x" + shelterRows + " weapon=" + weapon;
+    }
+}
@@ -0,0 +1,133 @@
+package com.dev.spaceinvadersgame;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hands out the wave of every level. The first levels come from a list of definitions,
+ * one Wave per line of text, and past the end of the list each level is made from the one
+ * before it a little harder: more invaders, faster and more trigger happy, thinner shelters.
+ *
+ * Generating a level is a few multiplications and every wave is kept once made,
+ * so asking for a level again costs nothing and the same level always gives the same wave.
+ */
+public class WaveGenerator {
+    /**
+     * The levels the game ships with in assets/waves.txt, the classic game first
+     * This copy is what the tests and the headless tools play, and the fallback when the asset can't be read
+     */
+    static final String DEFAULT_WAVES =
+            "invaders=6x5 speed=40 fire=1 shelters=4 bricks=10x5\n"
+            + "invaders=7x5 speed=44 fire=1.1 shelters=4 bricks=10x5 weapon=rapid\n"
+            + "invaders=8x5 speed=48 fire=1.2 shelters=4 bricks=10x4 weapon=spread\n";
+
+    /**
+     * Generated formations stop growing here, any more would not fit between the screen edges and the shelters
+     */
+    static final int MAX_COLUMNS = 11;
+    static final int MAX_ROWS = 6;
+    static final float MAX_FIRE_RATE = 4;
+    static final int MIN_SHELTER_ROWS = 2;
+
+    private final List<Wave> waves = new ArrayList<>();
+
+    /**
+     * Make up levels past the last definition, or keep playing the last one
+     */
+    private final boolean procedural;
+
+    public WaveGenerator(List<Wave> definitions, boolean procedural) {
+        if (definitions.isEmpty()) {
+            throw new IllegalArgumentException("At least one wave is needed");
+        }
+        waves.addAll(definitions);
+        this.procedural = procedural;
+    }
+
+    /**
+     * The built in levels, then generated ones
+     */
+    public static WaveGenerator standard() {
+        try {
+            return load(new StringReader(DEFAULT_WAVES), true);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The same wave for every level, used to keep a constant load in benchmarks
+     */
+    public static WaveGenerator fixed(Wave wave) {
+        List<Wave> waves = new ArrayList<>();
+        waves.add(wave);
+        return new WaveGenerator(waves, false);
+    }
+
+    /**
+     * Read one wave per line, blank lines and lines starting with # are skipped
+     */
+    public static WaveGenerator load(Reader reader, boolean procedural) throws IOException {
+        List<Wave> waves = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int number = 0;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                waves.add(Wave.parse(line));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Line " + number + ": " + e.getMessage());
+            }
+        }
+        if (waves.isEmpty()) {
+            throw new IOException("No waves defined");
+        }
+        return new WaveGenerator(waves, procedural);
+    }
+
+    /**
+     * The wave of a level, counted from 0
+     */
+    public Wave get(int level) {
+        if (level < 0) {
+            throw new IllegalArgumentException("level " + level);
+        }
+        if (!procedural) {
+            return waves.get(Math.min(level, waves.size() - 1));
+        }
+        while (waves.size() <= level) {
+            waves.add(harder(waves.get(waves.size() - 1), waves.size()));
+        }
+        return waves.get(level);
+    }
+
+    /**
+     * The level after this one
+     */
+    private static Wave harder(Wave wave, int level) {
+        int columns = wave.columns;
+        if (level % 2 == 0 && columns < MAX_COLUMNS) {
+            columns++;
+        }
+        int rows = wave.rows;
+        if (level % 3 == 0 && rows < MAX_ROWS) {
+            rows++;
+        }
+        int shelterRows = wave.shelterRows;
+        if (level % 3 == 0 && shelterRows > MIN_SHELTER_ROWS) {
+            shelterRows--;
+        }
+        float fireRate = Math.max(wave.fireRate, Math.min(MAX_FIRE_RATE, wave.fireRate * 1.1f));
+        return new Wave(columns, rows, wave.speed * 1.08f, wave.speedUp, fireRate, wave.shelters, wave.shelterColumns, shelterRows,
+                wave.weapon);
+    }
+}
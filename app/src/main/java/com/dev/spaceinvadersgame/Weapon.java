@@ -0,0 +1,125 @@
+package com.dev.spaceinvadersgame;
+
+/**
+ * How the player's gun shoots: how many bullets a shot fires and how wide they fan out,
+ * how soon it can shoot again, how many of its bullets may be in the air at once and how fast they fly.
+ * The bullets come from a BulletPool, so firing never allocates,
+ * and the direction of every bullet of a volley is worked out once when the weapon is made.
+ *
+ * A Wave picks its weapon by name: classic, rapid, spread or storm.
+ */
+public class Weapon {
+    /**
+     * The original gun: one bullet, and no new shot while it is in the air
+     */
+    public static final Weapon CLASSIC = new Weapon("classic", 1, 0, 0, 1, BulletPool.DEFAULT_SPEED);
+
+    /**
+     * Quick single shots, a few of them in the air at once
+     */
+    public static final Weapon RAPID = new Weapon("rapid", 1, 0, 150000000L, 6, 500);
+
+    /**
+     * Three bullets fanned out over 24 degrees
+     */
+    public static final Weapon SPREAD = new Weapon("spread", 3, 24, 300000000L, 12, BulletPool.DEFAULT_SPEED);
+
+    /**
+     * Five bullets over 40 degrees ten times a second, a couple of hundred in the air when held down
+     */
+    public static final Weapon STORM = new Weapon("storm", 5, 40, 100000000L, 200, 450);
+
+    private static final Weapon[] ALL = {CLASSIC, RAPID, SPREAD, STORM};
+
+    final String name;
+
+    /**
+     * Bullets per shot and the angle between the outermost two
+     */
+    final int shots;
+    final float spreadDegrees;
+
+    /**
+     * Simulated time before the gun can shoot again
+     * A gun that has one keeps shooting while the trigger is held, the classic one needs a tap per shot
+     */
+    final long cooldownNanos;
+
+    /**
+     * A shot is refused when its bullets would take more than this many in the air
+     */
+    final int maxInFlight;
+
+    /**
+     * Pixels per second
+     */
+    final float speed;
+
+    /**
+     * Velocity of each bullet of a volley, left to right
+     */
+    private final float[] velocityX;
+    private final float[] velocityY;
+
+    public Weapon(String name, int shots, float spreadDegrees, long cooldownNanos, int maxInFlight, float speed) {
+        if (shots < 1 || maxInFlight < shots || cooldownNanos < 0 || speed <= 0 || spreadDegrees < 0 || spreadDegrees >= 180) {
+            throw new IllegalArgumentException("Invalid weapon " + name);
+        }
+        this.name = name;
+        this.shots = shots;
+        this.spreadDegrees = spreadDegrees;
+        this.cooldownNanos = cooldownNanos;
+        this.maxInFlight = maxInFlight;
+        this.speed = speed;
+
+        /**
+         * StrictMath so every device aims the spread the same way and a recorded game replays anywhere
+         */
+        velocityX = new float[shots];
+        velocityY = new float[shots];
+        for (int shot = 0; shot < shots; shot++) {
+            double degrees = shots == 1 ? 0 : -spreadDegrees / 2 + spreadDegrees * shot / (shots - 1);
+            double radians = StrictMath.toRadians(degrees);
+            velocityX[shot] = (float) (speed * StrictMath.sin(radians));
+            velocityY[shot] = (float) (-speed * StrictMath.cos(radians));
+        }
+    }
+
+    /**
+     * One of the built in weapons
+     */
+    public static Weapon byName(String name) {
+        for (Weapon weapon : ALL) {
+            if (weapon.name.equals(name)) {
+                return weapon;
+            }
+        }
+        throw new IllegalArgumentException("Unknown weapon " + name);
+    }
+
+    /**
+     * Does the gun fire again by itself while the trigger is held
+     */
+    public boolean isAutomatic() {
+        return cooldownNanos > 0;
+    }
+
+    /**
+     * Fire a volley upwards from x, y into the pool
+     * Returns how many bullets left the gun: all of them, or none when they wouldn't all fit
+     */
+    public int fire(BulletPool pool, float x, float y) {
+        if (pool.size() + shots > Math.min(maxInFlight, pool.getCapacity())) {
+            return 0;
+        }
+        for (int shot = 0; shot < shots; shot++) {
+            pool.spawn(x, y, velocityX[shot], velocityY[shot]);
+        }
+        return shots;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
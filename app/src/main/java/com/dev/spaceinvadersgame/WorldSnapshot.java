@@ -0,0 +1,158 @@
+package com.dev.spaceinvadersgame;
+
+/**
+ * A copy of everything the renderer needs from one simulation tick.
+ * The arrays are allocated once and only replaced when a bigger wave arrives; capture() overwrites them in place.
+ * Once published through a SnapshotBuffer a snapshot is only read, never changed,
+ * until the simulation gets it back to fill again.
+ */
+public class WorldSnapshot {
+    /**
+     * When this tick was captured and how long a tick lasts, to interpolate towards the next one
+     */
+    long captureNanos;
+    long stepNanos;
+
+    float playerX;
+    float playerPreviousX;
+
+    /**
+     * Only the invaders still alive, packed at the front
+     */
+    int invaderCount;
+    float[] invaderX;
+    float[] invaderY;
+    float[] invaderPreviousX;
+    float[] invaderPreviousY;
+
+    /**
+     * The GameWorld shelter version these shelters were copied at
+     */
+    int shelterVersion = -1;
+    final ShelterMask shelters = new ShelterMask();
+
+    int playerBulletCount;
+    float[] playerBulletX;
+    float[] playerBulletY;
+    float[] playerBulletPreviousX;
+    float[] playerBulletPreviousY;
+    float playerBulletWidth;
+    float playerBulletHeight;
+
+    int invaderBulletCount;
+    float[] invaderBulletX;
+    float[] invaderBulletY;
+    float[] invaderBulletPreviousY;
+    float invaderBulletWidth;
+    float invaderBulletHeight;
+
+    int score;
+    int lives;
+    int level;
+    boolean uhOrOh;
+    boolean paused;
+
+    public WorldSnapshot(int maxInvaders, int maxInvaderBullets) {
+        this(maxInvaders, maxInvaderBullets, GameWorld.PLAYER_BULLETS);
+    }
+
+    public WorldSnapshot(int maxInvaders, int maxInvaderBullets, int maxPlayerBullets) {
+        invaderX = new float[maxInvaders];
+        invaderY = new float[maxInvaders];
+        invaderPreviousX = new float[maxInvaders];
+        invaderPreviousY = new float[maxInvaders];
+
+        invaderBulletX = new float[maxInvaderBullets];
+        invaderBulletY = new float[maxInvaderBullets];
+        invaderBulletPreviousY = new float[maxInvaderBullets];
+
+        playerBulletX = new float[maxPlayerBullets];
+        playerBulletY = new float[maxPlayerBullets];
+        playerBulletPreviousX = new float[maxPlayerBullets];
+        playerBulletPreviousY = new float[maxPlayerBullets];
+    }
+
+    /**
+     * A snapshot big enough for the world's current level, it grows if a later one needs more
+     */
+    public static WorldSnapshot sizedFor(GameWorld world) {
+        return new WorldSnapshot(world.numInvaders, world.invadersBullets.getCapacity(), world.playerBullets.getCapacity());
+    }
+
+    /**
+     * Copy the state of the world, called on the simulation thread
+     */
+    public void capture(GameWorld world, long nowNanos, long stepNanos) {
+        captureNanos = nowNanos;
+        this.stepNanos = stepNanos;
+
+        playerX = world.playerShip.getX();
+        playerPreviousX = world.playerShip.getDrawX(0);
+
+        if (invaderX.length < world.numInvaders) {
+            invaderX = new float[world.numInvaders];
+            invaderY = new float[world.numInvaders];
+            invaderPreviousX = new float[world.numInvaders];
+            invaderPreviousY = new float[world.numInvaders];
+        }
+        invaderCount = 0;
+        for (int i = world.formation.nextAlive(0); i >= 0; i = world.formation.nextAlive(i + 1)) {
+            Invader invader = world.invaders[i];
+            invaderX[invaderCount] = invader.getX();
+            invaderY[invaderCount] = invader.getY();
+            invaderPreviousX[invaderCount] = invader.getDrawX(0);
+            invaderPreviousY[invaderCount] = invader.getDrawY(0);
+            invaderCount++;
+        }
+
+        /**
+         * Shelters rarely change, only copy them when they did
+         */
+        if (shelterVersion != world.getShelterVersion()) {
+            shelterVersion = world.getShelterVersion();
+            shelters.copyFrom(world.shelters);
+        }
+
+        BulletPool shots = world.playerBullets;
+        playerBulletCount = shots.size();
+        for (int i = 0; i < playerBulletCount; i++) {
+            playerBulletX[i] = shots.getX(i);
+            playerBulletY[i] = shots.getY(i);
+            playerBulletPreviousX[i] = shots.getDrawX(i, 0);
+            playerBulletPreviousY[i] = shots.getDrawY(i, 0);
+        }
+        playerBulletWidth = shots.getWidth();
+        playerBulletHeight = shots.getHeight();
+
+        BulletPool pool = world.invadersBullets;
+        invaderBulletCount = pool.size();
+        for (int i = 0; i < invaderBulletCount; i++) {
+            invaderBulletX[i] = pool.getX(i);
+            invaderBulletY[i] = pool.getY(i);
+            invaderBulletPreviousY[i] = pool.getDrawY(i, 0);
+        }
+        invaderBulletWidth = pool.getWidth();
+        invaderBulletHeight = pool.getHeight();
+
+        score = world.getScore();
+        lives = world.getLives();
+        level = world.getLevel();
+        uhOrOh = world.getUhOrOh();
+        paused = world.isPaused();
+    }
+
+    /**
+     * How far the renderer is between this tick and the next one, from 0 to 1
+     */
+    public float getAlpha(long nowNanos) {
+        if (stepNanos <= 0) {
+            return 1;
+        }
+        float alpha = (float) (nowNanos - captureNanos) / stepNanos;
+        return Math.max(0, Math.min(1, alpha));
+    }
+
+    static float lerp(float from, float to, float alpha) {
+        return from + (to - from) * alpha;
+    }
+}
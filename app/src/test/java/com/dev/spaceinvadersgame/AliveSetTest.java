@@ -0,0 +1,43 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AliveSetTest {
+    @Test
+    public void fill_setsExactlyTheFirstIds() {
+        AliveSet set = new AliveSet(200);
+        set.fill(130);
+
+        assertEquals(130, set.count());
+        assertTrue(set.get(129));
+        assertFalse(set.get(130));
+        assertEquals(-1, set.nextAlive(130));
+    }
+
+    @Test
+    public void nextAlive_skipsDeadIdsAcrossWords() {
+        AliveSet set = new AliveSet(200);
+        set.fill(200);
+        for (int id = 3; id < 150; id++) {
+            set.clear(id);
+        }
+
+        assertEquals(3 + 50, set.count());
+        assertEquals(2, set.nextAlive(2));
+        assertEquals(150, set.nextAlive(3));
+        assertEquals(199, set.nextAlive(199));
+        assertEquals(-1, set.nextAlive(200));
+    }
+
+    @Test
+    public void clear_countsEachIdOnce() {
+        AliveSet set = new AliveSet(10);
+        set.fill(10);
+
+        assertTrue(set.clear(4));
+        assertFalse(set.clear(4));
+        assertEquals(9, set.count());
+    }
+}
@@ -0,0 +1,94 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FireSchedulerTest {
+    private static final int SCREEN_X = 1080;
+    private static final int SCREEN_Y = 1920;
+    private static final long TICK_NANOS = 1000000000L / 60;
+
+    private static Formation formation() {
+        Formation formation = new Formation(6, 5);
+        formation.reset(SCREEN_X, SCREEN_Y);
+        return formation;
+    }
+
+    @Test
+    public void onlyTheBottomInvaderOfAColumnShoots() {
+        Formation formation = formation();
+        formation.kill(4);
+        FireScheduler scheduler = new FireScheduler(formation, new GameRandom(3));
+        scheduler.reset();
+        BulletPool bullets = new BulletPool(10000, SCREEN_Y);
+
+        for (int tick = 0; tick < 60 * 60; tick++) {
+            scheduler.update(TICK_NANOS, -1000, 10, bullets);
+        }
+
+        assertTrue(bullets.size() > 0);
+        for (int i = 0; i < bullets.size(); i++) {
+            float x = bullets.getX(i);
+            int column = (int) ((x - formation.getX(0)) / (formation.getX(5) - formation.getX(0)));
+            int bottom = formation.getBottomAlive(column);
+            assertEquals(formation.getY(bottom), bullets.getY(i), 0);
+        }
+        assertEquals(3, formation.getBottomAlive(0));
+    }
+
+    @Test
+    public void sameSeed_sameShots() {
+        BulletPool first = new BulletPool(10000, SCREEN_Y);
+        BulletPool second = new BulletPool(10000, SCREEN_Y);
+        FireScheduler a = new FireScheduler(formation(), new GameRandom(99));
+        FireScheduler b = new FireScheduler(formation(), new GameRandom(99));
+        a.reset();
+        b.reset();
+
+        for (int tick = 0; tick < 60 * 60; tick++) {
+            a.update(TICK_NANOS, 300, 100, first);
+            b.update(TICK_NANOS, 300, 100, second);
+            assertEquals(first.size(), second.size());
+        }
+        for (int column = 0; column < 6; column++) {
+            assertEquals(a.getNextRandomFire(column), b.getNextRandomFire(column));
+        }
+    }
+
+    @Test
+    public void aimedShots_comeAsOftenAsTheColumnHasInvaders() {
+        Formation formation = new Formation(1, 5);
+        formation.reset(SCREEN_X, SCREEN_Y);
+        FireScheduler scheduler = new FireScheduler(formation, new GameRandom(11));
+        scheduler.reset();
+        BulletPool bullets = new BulletPool(10000, SCREEN_Y);
+
+        /**
+         * Ten minutes under the column: 5 invaders rolling 1 in 150 and 1 in 2000 every tick fire about 1290 times
+         */
+        int ticks = 60 * 60 * 10;
+        for (int tick = 0; tick < ticks; tick++) {
+            scheduler.update(TICK_NANOS, formation.getX(0), formation.getInvaderWidth() / 2, bullets);
+        }
+        float expected = ticks * 5 * (1 / 150f + 1 / 2000f);
+        assertEquals(expected, bullets.size(), expected * 0.15f);
+    }
+
+    @Test
+    public void emptyColumnsNeverShoot() {
+        Formation formation = formation();
+        for (int slot = 0; slot < 30; slot++) {
+            formation.kill(slot);
+        }
+        FireScheduler scheduler = new FireScheduler(formation, new GameRandom(5));
+        scheduler.reset();
+        BulletPool bullets = new BulletPool(100, SCREEN_Y);
+
+        for (int tick = 0; tick < 60 * 60; tick++) {
+            scheduler.update(TICK_NANOS, 0, SCREEN_X, bullets);
+        }
+
+        assertEquals(0, bullets.size());
+    }
+}
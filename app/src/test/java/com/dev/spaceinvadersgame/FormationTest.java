@@ -0,0 +1,109 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * The formation replaces a loop over every invader, it has to agree with one.
+ */
+public class FormationTest {
+    private static final int SCREEN_X = 1080;
+    private static final int SCREEN_Y = 1920;
+
+    @Test
+    public void query_matchesBruteForce() {
+        Formation formation = new Formation(6, 5);
+        formation.reset(SCREEN_X, SCREEN_Y);
+        formation.kill(7);
+        formation.update(0.37f);
+
+        int[] out = new int[30];
+        float width = formation.getInvaderWidth();
+        float height = formation.getInvaderHeight();
+        for (float x = -50; x < SCREEN_X; x += 7) {
+            for (float y = -50; y < SCREEN_Y / 2; y += 11) {
+                int found = formation.query(x, y, x + 1, y + SCREEN_Y / 20, out);
+
+                for (int i = 0; i < found; i++) {
+                    assertTrue(formation.isAlive(out[i]));
+                }
+                for (int slot = 0; slot < 30; slot++) {
+                    float left = formation.getX(slot);
+                    float top = formation.getY(slot);
+                    boolean overlaps = x < left + width && left < x + 1 && y < top + height && top < y + SCREEN_Y / 20;
+                    if (overlaps && formation.isAlive(slot)) {
+                        assertTrue("slot " + slot + " missed", contains(out, found, slot));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void edgesFollowLivingColumns() {
+        Formation formation = new Formation(6, 5);
+        formation.reset(SCREEN_X, SCREEN_Y);
+        assertFalse(formation.isTouchingEdge(SCREEN_X));
+
+        /**
+         * Empty the last column, the formation can now go further right
+         */
+        for (int row = 0; row < 5; row++) {
+            formation.kill(5 * 5 + row);
+        }
+        float rightmost = formation.getX(4 * 5);
+
+        formation.update((SCREEN_X - formation.getInvaderWidth() - rightmost - 1) / 40f);
+        assertFalse(formation.isTouchingEdge(SCREEN_X));
+
+        formation.update(2 / 40f);
+        assertTrue(formation.isTouchingEdge(SCREEN_X));
+    }
+
+    @Test
+    public void dropDownAndReverse_movesEveryInvaderOnce() {
+        Formation formation = new Formation(6, 5);
+        formation.reset(SCREEN_X, SCREEN_Y);
+        float y = formation.getY(3);
+        float x = formation.getX(3);
+
+        formation.dropDownAndReverse();
+        formation.update(1);
+
+        assertEquals(y + formation.getInvaderHeight(), formation.getY(3), 0);
+        assertTrue(formation.getX(3) < x);
+    }
+
+    @Test
+    public void groundFollowsLowestLivingRow() {
+        Formation formation = new Formation(6, 5);
+        formation.reset(SCREEN_X, SCREEN_Y);
+        float bottom = formation.getY(4) + formation.getInvaderHeight();
+        assertTrue(formation.isTouchingGround(bottom - 1));
+        assertFalse(formation.isTouchingGround(bottom));
+
+        /**
+         * Empty the bottom row, the formation has a row further to go
+         */
+        for (int column = 0; column < 6; column++) {
+            formation.kill(column * 5 + 4);
+        }
+        assertFalse(formation.isTouchingGround(bottom - 1));
+        assertTrue(formation.isTouchingGround(formation.getY(3) + formation.getInvaderHeight() - 1));
+
+        for (int slot = 0; slot < 30; slot++) {
+            formation.kill(slot);
+        }
+        assertFalse(formation.isTouchingGround(0));
+    }
+
+    private static boolean contains(int[] out, int found, int slot) {
+        for (int i = 0; i < found; i++) {
+            if (out[i] == slot) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
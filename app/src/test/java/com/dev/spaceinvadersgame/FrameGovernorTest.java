@@ -0,0 +1,72 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameGovernorTest {
+    private static final long BUDGET = 1000000000L / 60;
+
+    private static void frames(FrameGovernor governor, int count, long costNanos) {
+        for (int i = 0; i < count; i++) {
+            governor.onFrame(costNanos);
+        }
+    }
+
+    @Test
+    public void cheapFrames_stayAtFullQuality() {
+        FrameGovernor governor = new FrameGovernor(60);
+        frames(governor, 1000, BUDGET / 4);
+
+        assertEquals(FrameGovernor.FULL, governor.getLevel());
+        assertEquals(BUDGET, governor.getFrameIntervalNanos());
+    }
+
+    @Test
+    public void expensiveFrames_degradeOneLevelAtATime() {
+        FrameGovernor governor = new FrameGovernor(60);
+        frames(governor, 60, BUDGET);
+        assertEquals(FrameGovernor.REDUCED, governor.getLevel());
+
+        frames(governor, 60, BUDGET);
+        assertEquals(FrameGovernor.LOW, governor.getLevel());
+        assertEquals(BUDGET * 2, governor.getFrameIntervalNanos());
+
+        frames(governor, 600, BUDGET * 3);
+        assertEquals(FrameGovernor.LOW, governor.getLevel());
+    }
+
+    @Test
+    public void oneSlowFrame_changesNothing() {
+        FrameGovernor governor = new FrameGovernor(60);
+        frames(governor, 100, BUDGET / 4);
+        governor.onFrame(BUDGET * 4);
+        frames(governor, 100, BUDGET / 4);
+
+        assertEquals(FrameGovernor.FULL, governor.getLevel());
+    }
+
+    @Test
+    public void quality_comesBackOnceFramesAreCheap() {
+        FrameGovernor governor = new FrameGovernor(60);
+        frames(governor, 200, BUDGET);
+        assertEquals(FrameGovernor.LOW, governor.getLevel());
+
+        /**
+         * Between the two thresholds nothing moves
+         */
+        frames(governor, 300, BUDGET * 7 / 10);
+        assertEquals(FrameGovernor.LOW, governor.getLevel());
+
+        frames(governor, 300, BUDGET / 5);
+        assertEquals(FrameGovernor.FULL, governor.getLevel());
+    }
+
+    @Test
+    public void nextFrame_waitsOutTheRestOfTheInterval() {
+        FrameGovernor governor = new FrameGovernor(60);
+
+        assertEquals(BUDGET - 1000, governor.getNanosUntilNextFrame(5000, 6000));
+        assertEquals(0, governor.getNanosUntilNextFrame(0, BUDGET * 2));
+    }
+}
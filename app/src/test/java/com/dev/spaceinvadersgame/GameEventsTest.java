@@ -0,0 +1,106 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GameEventsTest {
+    private static final long TICK_NANOS = 1000000000L / 60;
+
+    /**
+     * Keeps a copy of what it was told, events themselves are recycled
+     */
+    private static class Recorder implements GameEvents.Listener {
+        final List<String> seen = new ArrayList<>();
+
+        @Override
+        public void onEvent(GameEvent event) {
+            seen.add(event.getType() + "@" + event.getTick() + "#" + event.getId());
+        }
+    }
+
+    @Test
+    public void drain_tellsEveryListenerInOrder() {
+        GameEvents events = new GameEvents(8);
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        events.subscribe(first);
+        events.subscribe(second);
+
+        events.publish(GameEvents.SHOT_FIRED, 1);
+        events.publish(GameEvents.INVADER_KILLED, 2).at(7, 0, 0);
+        events.drain();
+
+        assertEquals("[0@1#-1, 1@2#7]", first.seen.toString());
+        assertEquals(first.seen, second.seen);
+        assertEquals(0, events.size());
+
+        events.drain();
+        assertEquals(2, first.seen.size());
+    }
+
+    @Test
+    public void fullRing_losesTheOldestEvents() {
+        GameEvents events = new GameEvents(4);
+        Recorder recorder = new Recorder();
+        events.subscribe(recorder);
+
+        for (int tick = 0; tick < 6; tick++) {
+            events.publish(GameEvents.SHELTER_HIT, tick).at(tick, 0, 0);
+        }
+        events.drain();
+
+        assertEquals("[2@2#2, 2@3#3, 2@4#4, 2@5#5]", recorder.seen.toString());
+        assertEquals(2, events.getDropped());
+    }
+
+    @Test
+    public void publishAndDrain_allocateNothing() {
+        GameEvents events = new GameEvents(64);
+        events.subscribe(new GameEvents.Listener() {
+            @Override
+            public void onEvent(GameEvent event) {
+            }
+        });
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < 100000; i++) {
+            events.publish(GameEvents.SHOT_FIRED, i);
+            events.drain();
+        }
+        long overhead = bean.getThreadAllocatedBytes(thread);
+        overhead = bean.getThreadAllocatedBytes(thread) - overhead;
+
+        long before = bean.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 10000; i++) {
+            events.publish(GameEvents.INVADER_KILLED, i).at(i, 1, 2);
+            events.drain();
+        }
+
+        assertEquals(0, bean.getThreadAllocatedBytes(thread) - before - overhead);
+    }
+
+    @Test
+    public void rules_scoreTheKillsCollisionsPublish() {
+        GameWorld world = new GameWorld(1080, 1920, 10, 1);
+        Recorder recorder = new Recorder();
+        world.getEvents().subscribe(recorder);
+        world.handleCommand(InputCommand.START);
+
+        Hitbox rect = world.invaders[4].getRect();
+        world.playerBullets.spawn((rect.left + rect.right) / 2, rect.bottom + 1, -BulletPool.DEFAULT_SPEED);
+        for (int tick = 0; tick < 5 && world.getScore() == 0; tick++) {
+            world.update(TICK_NANOS);
+        }
+        world.getEvents().drain();
+
+        assertEquals(GameWorld.INVADER_POINTS, world.getScore());
+        assertTrue(recorder.seen.toString(), recorder.seen.toString().contains(GameEvents.INVADER_KILLED + "@"));
+        assertTrue(recorder.seen.toString(), recorder.seen.toString().contains("#4"));
+    }
+}
@@ -0,0 +1,222 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the game headless on the JVM, no Android device needed.
+ */
+public class GameWorldTest {
+    private static final long TICK_NANOS = 1000000000L / 60;
+
+    /**
+     * Play a scripted game: keep firing and sweep the ship left and right
+     */
+    private static GameWorld play(long seed, int ticks) {
+        GameWorld world = new GameWorld(1080, 1920, 10, seed);
+        world.handleCommand(InputCommand.START);
+        for (int tick = 0; tick < ticks; tick++) {
+            if (tick % 30 == 0) {
+                world.handleCommand(InputCommand.FIRE);
+            }
+            if (tick % 240 == 0) {
+                world.handleCommand(InputCommand.MOVE_LEFT);
+            } else if (tick % 240 == 120) {
+                world.handleCommand(InputCommand.MOVE_RIGHT);
+            }
+            if (world.isPaused()) {
+                world.handleCommand(InputCommand.START);
+            }
+            world.update(TICK_NANOS);
+            world.getEvents().clear();
+        }
+        return world;
+    }
+
+    @Test
+    public void sameSeedAndInput_sameGame() {
+        GameWorld first = play(1234, 20000);
+        GameWorld second = play(1234, 20000);
+
+        assertEquals(first.getScore(), second.getScore());
+        assertEquals(first.getLives(), second.getLives());
+        assertEquals(first.invadersBullets.size(), second.invadersBullets.size());
+        for (int i = 0; i < first.numInvaders; i++) {
+            assertEquals(first.invaders[i].getVisibility(), second.invaders[i].getVisibility());
+            assertEquals(first.invaders[i].getX(), second.invaders[i].getX(), 0);
+            assertEquals(first.invaders[i].getY(), second.invaders[i].getY(), 0);
+        }
+    }
+
+    @Test
+    public void nothingMovesWhilePaused() {
+        GameWorld world = new GameWorld(1080, 1920, 10, 1);
+        float x = world.invaders[0].getX();
+
+        world.update(TICK_NANOS);
+
+        assertTrue(world.isPaused());
+        assertEquals(x, world.invaders[0].getX(), 0);
+    }
+
+    @Test
+    public void firing_reportsShotEvent() {
+        GameWorld world = new GameWorld(1080, 1920, 10, 1);
+        world.handleCommand(InputCommand.FIRE);
+
+        assertEquals(1, world.getEvents().size());
+        assertEquals(GameEvents.SHOT_FIRED, world.getEvents().get(0).getType());
+    }
+
+    @Test
+    public void invadersLanding_endsTheGame() {
+        GameWorld world = new GameWorld(1080, 1920, 10, 1);
+        world.handleCommand(InputCommand.START);
+        while (!world.formation.isTouchingGround(world.playerShip.getRect().top - world.formation.getInvaderHeight())) {
+            world.formation.dropDownAndReverse();
+        }
+
+        int gameOvers = 0;
+        for (int tick = 0; tick < 6000 && !world.isPaused(); tick++) {
+            world.update(TICK_NANOS);
+            for (int i = 0; i < world.getEvents().size(); i++) {
+                if (world.getEvents().get(i).getType() == GameEvents.GAME_OVER) {
+                    gameOvers++;
+                }
+            }
+            world.getEvents().clear();
+        }
+        assertEquals(1, gameOvers);
+        assertTrue(world.isPaused());
+        assertEquals(0, world.getLevel());
+        assertFalse(world.formation.isTouchingGround(world.playerShip.getRect().top));
+    }
+
+    @Test
+    public void weapon_waitsForItsCooldown() {
+        GameWorld world = new GameWorld(1080, 1920, 10, 1, WaveGenerator.fixed(Wave.CLASSIC.withWeapon(Weapon.RAPID)));
+        world.handleCommand(InputCommand.START);
+        world.handleCommand(InputCommand.FIRE);
+        world.handleCommand(InputCommand.FIRE);
+        assertEquals(1, world.playerBullets.size());
+
+        long ticks = Weapon.RAPID.cooldownNanos / TICK_NANOS + 1;
+        for (int tick = 0; tick < ticks; tick++) {
+            world.update(TICK_NANOS);
+        }
+        world.handleCommand(InputCommand.FIRE);
+        assertEquals(2, world.playerBullets.size());
+    }
+
+    @Test
+    public void heldTrigger_keepsAnAutomaticWeaponFiring() {
+        GameWorld world = new GameWorld(1080, 1920, 10, 1, WaveGenerator.fixed(Wave.CLASSIC.withWeapon(Weapon.RAPID)));
+        world.handleCommand(InputCommand.START);
+        world.handleCommand(InputCommand.HOLD_FIRE);
+        for (int tick = 0; tick < 30; tick++) {
+            world.update(TICK_NANOS);
+        }
+        int held = world.playerBullets.size();
+        assertTrue(held > 1);
+
+        world.handleCommand(InputCommand.RELEASE_FIRE);
+        for (int tick = 0; tick < 30; tick++) {
+            world.update(TICK_NANOS);
+        }
+        assertTrue(world.playerBullets.size() <= held);
+    }
+
+    @Test
+    public void heldTrigger_firesTheClassicGunOnce() {
+        GameWorld world = new GameWorld(1080, 1920, 10, 1);
+        world.handleCommand(InputCommand.START);
+        world.handleCommand(InputCommand.HOLD_FIRE);
+        for (int tick = 0; tick < 30; tick++) {
+            world.update(TICK_NANOS);
+        }
+        assertEquals(1, world.playerBullets.size());
+    }
+
+    /**
+     * An invader bullet coming down at x and a player bullet going up at playerX, 200 px below it
+     */
+    private static GameWorld facingBullets(float x, float playerX) {
+        GameWorld world = new GameWorld(1080, 1920, 10, 1);
+        world.invadersBullets.spawn(x, 800, BulletPool.DEFAULT_SPEED);
+        world.playerBullets.spawn(playerX, 1000, -BulletPool.DEFAULT_SPEED);
+        for (int tick = 0; tick < 30; tick++) {
+            world.moveBullets(TICK_NANOS / 1e9f);
+            world.collideBulletsWithBullets();
+        }
+        return world;
+    }
+
+    @Test
+    public void bulletsMeeting_knockEachOtherOut() {
+        GameWorld world = facingBullets(500, 503);
+
+        assertEquals(0, world.invadersBullets.size());
+        assertEquals(0, world.playerBullets.size());
+        assertEquals(1, world.getEvents().size());
+        assertEquals(GameEvents.BULLETS_INTERCEPTED, world.getEvents().get(0).getType());
+    }
+
+    @Test
+    public void bulletsFarApart_flyPast() {
+        GameWorld world = facingBullets(500, 600);
+
+        assertEquals(1, world.invadersBullets.size());
+        assertEquals(1, world.playerBullets.size());
+        assertEquals(0, world.getEvents().size());
+    }
+
+    /**
+     * Kill every invader but one, then shoot it from right underneath
+     */
+    private static void winLevel(GameWorld world) {
+        world.handleCommand(InputCommand.START);
+        int last = world.numInvaders - 1;
+        for (int i = 0; i < last; i++) {
+            world.invaders[i].setInvisible();
+        }
+        Hitbox rect = world.invaders[last].getRect();
+        world.playerBullets.spawn((rect.left + rect.right) / 2, rect.bottom + 1, -BulletPool.DEFAULT_SPEED);
+        world.getEvents().clear();
+        for (int tick = 0; tick < 10 && !world.isPaused(); tick++) {
+            world.update(TICK_NANOS);
+        }
+    }
+
+    @Test
+    public void winningAWave_startsTheNextOneAndKeepsTheScore() {
+        GameWorld world = new GameWorld(1080, 1920, 10, 1);
+        winLevel(world);
+        int score = world.getScore();
+
+        assertTrue(world.isPaused());
+        assertEquals(1, world.getLevel());
+        assertTrue(score > 0);
+        assertEquals(WaveGenerator.standard().get(1).getInvaderCount(),
+                world.numInvaders);
+        assertEquals(world.numInvaders, world.formation.getAliveCount());
+    }
+
+    @Test
+    public void biggerWaves_growTheStorage() {
+        WaveGenerator waves = WaveGenerator.fixed(Wave.parse("invaders=30x20 shelters=8 bricks=12x8"));
+        GameWorld world = new GameWorld(1080, 1920, 10, 1, waves);
+
+        assertEquals(600, world.numInvaders);
+        assertEquals(8, world.shelters.getShelters());
+        assertEquals(12 * ShelterMask.CELLS_ACROSS, world.shelters.getColumns());
+        assertEquals(8 * ShelterMask.CELLS_DOWN, world.shelters.getRows());
+        assertTrue(world.shelters.count() > 0);
+
+        WorldSnapshot snapshot = new WorldSnapshot(1, 1);
+        snapshot.capture(world, 0, TICK_NANOS);
+        assertEquals(600, snapshot.invaderCount);
+        assertEquals(world.shelters.count(), snapshot.shelters.count());
+        assertTrue(snapshot.shelters.sameLayout(world.shelters));
+    }
+}
@@ -0,0 +1,59 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HitboxTest {
+    @Test
+    public void sweep_findsTargetJumpedOver() {
+        /**
+         * A 1 px wide bullet moving 500 px up in one tick through a 20 px high box
+         */
+        float time = Hitbox.sweep(10, 600, 11, 696, 0, -500, 0, 200, 50, 220);
+
+        assertEquals((600 - 220) / 500f, time, 1e-6f);
+    }
+
+    @Test
+    public void sweep_missesBoxBesideThePath() {
+        assertEquals(Hitbox.NO_HIT, Hitbox.sweep(10, 600, 11, 696, 0, -500, 11, 200, 50, 220), 0);
+    }
+
+    @Test
+    public void sweep_missesBoxBeyondTheMove() {
+        assertEquals(Hitbox.NO_HIT, Hitbox.sweep(10, 600, 11, 696, 0, -100, 0, 200, 50, 220), 0);
+    }
+
+    @Test
+    public void sweep_alreadyOverlapping_hitsAtStart() {
+        assertEquals(0, Hitbox.sweep(10, 210, 11, 230, 0, -100, 0, 200, 50, 220), 0);
+    }
+
+    @Test
+    public void sweep_diagonal() {
+        float time = Hitbox.sweep(0, 0, 10, 10, 100, 100, 50, 50, 60, 60);
+
+        assertEquals(0.4f, time, 1e-6f);
+    }
+
+    @Test
+    public void coarseTick_bulletCantTunnel() {
+        GameWorld world = new GameWorld(1080, 1920, 10, 1);
+
+        /**
+         * Column 0 has no shelter under it, aim at its bottom invader
+         */
+        world.playerBullets.spawn(world.invaders[4].getX() + 10, 1920, -BulletPool.DEFAULT_SPEED);
+
+        /**
+         * Long enough to cross the whole screen in one step
+         */
+        world.moveBullets(5);
+        world.collidePlayerBulletsWithInvaders();
+
+        assertFalse(world.invaders[4].getVisibility());
+        assertTrue(world.invaders[3].getVisibility());
+        assertEquals(0, world.playerBullets.size());
+    }
+}
@@ -0,0 +1,90 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class InputReplayerTest {
+    private static final long TICK_NANOS = 1000000000L / 60;
+
+    /**
+     * Play the way SpaceInvadersView does: commands first, then ticks, recording what is applied
+     */
+    private static byte[] recordSession(long seed, int ticks, int fireEvery) throws IOException {
+        return recordSession(seed, ticks, fireEvery, WaveGenerator.DEFAULT_WAVES);
+    }
+
+    private static byte[] recordSession(long seed, int ticks, int fireEvery, String waves) throws IOException {
+        GameWorld world = new GameWorld(1080, 1920, 10, seed, WaveGenerator.load(new StringReader(waves), true));
+        InputRecorder recorder = new InputRecorder(seed, 1080, 1920, 10, TICK_NANOS, waves);
+
+        for (int tick = 0; tick < ticks; tick++) {
+            int command = -1;
+            if (world.isPaused()) {
+                command = InputCommand.START;
+            } else if (tick % fireEvery == 0) {
+                command = InputCommand.FIRE;
+            } else if (tick % 200 == 0) {
+                command = tick % 400 == 0 ? InputCommand.MOVE_LEFT : InputCommand.MOVE_RIGHT;
+            }
+            if (command != -1) {
+                recorder.record(world.getTick(), command);
+                world.handleCommand(command);
+            }
+            world.update(TICK_NANOS);
+            world.getEvents().clear();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorder.writeTo(out, world.getTick(), world.checksum());
+        return out.toByteArray();
+    }
+
+    @Test
+    public void replay_reachesTheRecordedState() throws IOException {
+        byte[] log = recordSession(77, 10000, 25);
+
+        InputReplayer.Result result = InputReplayer.replay(new ByteArrayInputStream(log));
+
+        assertEquals(10000, result.ticks);
+        assertTrue(result.matches());
+    }
+
+    @Test
+    public void replay_playsTheRecordedLevels() throws IOException {
+        byte[] log = recordSession(77, 10000, 25, "invaders=3x2 speed=90 fire=3 shelters=2 bricks=6x3\n");
+
+        InputReplayer.Result result = InputReplayer.replay(new ByteArrayInputStream(log));
+
+        assertEquals(10000, result.ticks);
+        assertTrue(result.matches());
+    }
+
+    @Test
+    public void replay_noticesADifferentGame() throws IOException {
+        byte[] log = recordSession(77, 10000, 25);
+
+        /**
+         * The seed sits right after the magic number and the version
+         */
+        log[13] ^= 1;
+        InputReplayer.Result result = InputReplayer.replay(new ByteArrayInputStream(log));
+
+        assertFalse(result.matches());
+    }
+
+    @Test
+    public void log_staysSmall() throws IOException {
+        byte[] log = recordSession(5, 36000, 30);
+
+        /**
+         * Ten minutes of play, a few bytes per command
+         */
+        assertTrue("log is " + log.length + " bytes", log.length < 4096);
+    }
+}
@@ -0,0 +1,73 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * A level reset happens right when the player is looking at the screen,
+ * so after the first level it must not create any garbage.
+ */
+public class LevelResetAllocationTest {
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Test
+    public void prepareLevel_reusesObjects() {
+        GameWorld world = new GameWorld(1080, 1920, 10, 42);
+
+        Invader firstInvader = world.invaders[0];
+        PlayerShip ship = world.playerShip;
+        int cells = world.shelters.count();
+
+        world.invaders[0].setInvisible();
+        world.shelters.blast(0, 20, 20);
+        world.prepareLevel();
+
+        assertSame(firstInvader, world.invaders[0]);
+        assertSame(ship, world.playerShip);
+        assertTrue(world.invaders[0].getVisibility());
+        assertEquals(cells, world.shelters.count());
+    }
+
+    /**
+     * Bytes 100 level resets allocated, less what reading the counter costs
+     */
+    private static long resetBatch(GameWorld world) {
+        long overhead = allocatedBytes();
+        overhead = allocatedBytes() - overhead;
+
+        long before = allocatedBytes();
+        for (int i = 0; i < 100; i++) {
+            world.prepareLevel();
+        }
+        return allocatedBytes() - before - overhead;
+    }
+
+    @Test
+    public void prepareLevel_allocatesNothingAfterFirstLevel() {
+        GameWorld world = new GameWorld(1080, 1920, 10, 42);
+
+        /**
+         * Let the JIT settle over several unmeasured batches
+         */
+        for (int batch = 0; batch < 20; batch++) {
+            resetBatch(world);
+        }
+
+        /**
+         * Compilation and the counter itself now and then add a few bytes to a batch,
+         * a reset that allocated would show up in every one of them
+         */
+        long allocated = Long.MAX_VALUE;
+        for (int batch = 0; batch < 10; batch++) {
+            allocated = Math.min(allocated, resetBatch(world));
+        }
+
+        assertEquals("bytes allocated by 100 level resets", 0, allocated);
+    }
+}
@@ -0,0 +1,146 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SaveStateTest {
+    private static final long TICK_NANOS = 1000000000L / 60;
+
+    /**
+     * Start the game, then shoot and wander for a while so every part of the state has moved
+     * A paused world is started and given the same input as a running one, so a restored game keeps in step
+     */
+    private static void play(GameWorld world, int ticks) {
+        for (int tick = 0; tick < ticks; tick++) {
+            if (world.isPaused()) {
+                world.handleCommand(InputCommand.START);
+            }
+            if (tick % 20 == 0) {
+                world.handleCommand(InputCommand.FIRE);
+            } else if (tick % 150 == 0) {
+                world.handleCommand(tick % 300 == 0 ? InputCommand.MOVE_LEFT : InputCommand.MOVE_RIGHT);
+            }
+            world.update(TICK_NANOS);
+            world.getEvents().clear();
+        }
+    }
+
+    private static byte[] save(GameWorld world) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        world.saveState(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void restore_givesTheSameWorld() throws IOException {
+        GameWorld world = new GameWorld(1080, 1920, 10, 5);
+        play(world, 3000);
+        byte[] state = save(world);
+
+        /**
+         * A different seed, only the saved state decides what the restored world looks like
+         */
+        GameWorld restored = new GameWorld(1080, 1920, 10, 99);
+        restored.restoreState(new ByteArrayInputStream(state));
+        if (!world.isPaused()) {
+            restored.handleCommand(InputCommand.START);
+        }
+
+        assertEquals(world.checksum(), restored.checksum());
+        assertEquals(world.getTick(), restored.getTick());
+        assertEquals(world.formation.getAliveCount(), restored.formation.getAliveCount());
+        assertEquals(world.shelters.count(), restored.shelters.count());
+        for (int column = 0; column < world.formation.getColumns(); column++) {
+            assertEquals(world.fireScheduler.getNextRandomFire(column), restored.fireScheduler.getNextRandomFire(column));
+            assertEquals(world.formation.getColumnAliveCount(column), restored.formation.getColumnAliveCount(column));
+        }
+    }
+
+    @Test
+    public void restore_waitsForStart() throws IOException {
+        GameWorld world = new GameWorld(1080, 1920, 10, 5);
+        play(world, 1000);
+        assertFalse(world.isPaused());
+
+        GameWorld restored = new GameWorld(1080, 1920, 10, 5);
+        restored.restoreState(new ByteArrayInputStream(save(world)));
+        assertTrue(restored.isPaused());
+
+        long tick = restored.getTick();
+        float x = restored.formation.getX(0);
+        restored.update(TICK_NANOS);
+        assertEquals(x, restored.formation.getX(0), 0);
+        assertEquals(tick + 1, restored.getTick());
+
+        restored.handleCommand(InputCommand.START);
+        restored.update(TICK_NANOS);
+        assertTrue(x != restored.formation.getX(0));
+    }
+
+    @Test
+    public void restore_carriesOnTheSameGame() throws IOException {
+        GameWorld world = new GameWorld(1080, 1920, 10, 5);
+        play(world, 2000);
+        GameWorld restored = new GameWorld(1080, 1920, 10, 42);
+        restored.restoreState(new ByteArrayInputStream(save(world)));
+
+        play(world, 5000);
+        play(restored, 5000);
+
+        assertEquals(world.checksum(), restored.checksum());
+    }
+
+    @Test
+    public void restore_bringsBackTheCraters() throws IOException {
+        GameWorld world = new GameWorld(1080, 1920, 10, 5);
+        play(world, 6000);
+        GameWorld fresh = new GameWorld(1080, 1920, 10, 5);
+        assertTrue(world.shelters.count() < fresh.shelters.count());
+        GameWorld restored = new GameWorld(1080, 1920, 10, 5);
+        int versionBefore = restored.getShelterVersion();
+        restored.restoreState(new ByteArrayInputStream(save(world)));
+
+        for (int shelter = 0; shelter < world.shelters.getShelters(); shelter++) {
+            assertTrue(restored.shelters.sameShelter(world.shelters, shelter));
+        }
+        assertTrue(restored.getShelterVersion() > versionBefore);
+    }
+
+    @Test
+    public void restore_refusesAnotherScreen() throws IOException {
+        GameWorld world = new GameWorld(1080, 1920, 10, 5);
+        play(world, 500);
+        GameWorld other = new GameWorld(720, 1280, 10, 5);
+        long before = other.checksum();
+
+        try {
+            other.restoreState(new ByteArrayInputStream(save(world)));
+            fail("a state for another screen was accepted");
+        } catch (IOException expected) {
+        }
+        assertEquals(before, other.checksum());
+    }
+
+    @Test
+    public void restore_cutShortStartsANewGame() throws IOException {
+        GameWorld world = new GameWorld(1080, 1920, 10, 5);
+        play(world, 500);
+        byte[] state = save(world);
+
+        GameWorld restored = new GameWorld(1080, 1920, 10, 5);
+        try {
+            restored.restoreState(new ByteArrayInputStream(Arrays.copyOf(state, state.length - 8)));
+            fail("a truncated state was accepted");
+        } catch (IOException expected) {
+        }
+        assertTrue(restored.isPaused());
+        assertEquals(0, restored.getScore());
+        assertEquals(new GameWorld(1080, 1920, 10, 5).shelters.count(), restored.shelters.count());
+    }
+}
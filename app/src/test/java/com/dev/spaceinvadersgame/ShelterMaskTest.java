@@ -0,0 +1,97 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ShelterMaskTest {
+    private static final int SCREEN_X = 1080;
+    private static final int SCREEN_Y = 1920;
+
+    private static ShelterMask classic() {
+        ShelterMask mask = new ShelterMask();
+        mask.reset(Wave.CLASSIC, SCREEN_X, SCREEN_Y);
+        return mask;
+    }
+
+    /**
+     * A player bullet that moved up from below the shelters to y in one tick
+     */
+    private static BulletPool shotUpTo(float x, float y) {
+        BulletPool pool = new BulletPool(1, SCREEN_Y);
+        pool.spawn(x, SCREEN_Y, 0, y - SCREEN_Y);
+        pool.update(1, 0, SCREEN_X, 0, Float.POSITIVE_INFINITY);
+        return pool;
+    }
+
+    @Test
+    public void reset_buildsTheArcadeShape() {
+        ShelterMask mask = classic();
+        int columns = mask.getColumns();
+        int rows = mask.getRows();
+
+        assertEquals(4, mask.getShelters());
+        assertTrue(mask.get(0, columns / 2, 0));
+        assertFalse("top corner", mask.get(0, 0, 0));
+        assertFalse("arch", mask.get(0, columns / 2, rows - 1));
+        assertTrue(mask.get(0, 0, rows - 1));
+        assertTrue(mask.count() < 4 * columns * rows);
+    }
+
+    @Test
+    public void sweep_findsTheLowestCellOnTheWayUp() {
+        ShelterMask mask = classic();
+        float x = mask.getLeft(1) + 2 * mask.getCellWidth();
+        BulletPool pool = shotUpTo(x, mask.getTop() - 100);
+
+        float time = mask.sweep(pool, 0);
+
+        assertTrue(time != Hitbox.NO_HIT);
+        assertEquals(1, mask.getHitShelter());
+        assertEquals(mask.getTop() + (mask.getRows() - 0.5f) * mask.getCellHeight(), mask.getHitY(), 1e-3f);
+    }
+
+    @Test
+    public void sweep_goesThroughTheGaps() {
+        ShelterMask mask = classic();
+        float gap = mask.getLeft(1) - 5;
+        assertEquals(Hitbox.NO_HIT, mask.sweep(shotUpTo(gap, 0), 0), 0);
+
+        float arch = mask.getLeft(2) + mask.getColumns() / 2 * mask.getCellWidth();
+        BulletPool pool = shotUpTo(arch, mask.getTop() + mask.getRows() * mask.getCellHeight() - 10);
+        assertEquals(Hitbox.NO_HIT, mask.sweep(pool, 0), 0);
+    }
+
+    @Test
+    public void blast_carvesACraterTheNextShotGoesFurther() {
+        ShelterMask mask = classic();
+        float x = mask.getLeft(0) + 4 * mask.getCellWidth();
+        BulletPool pool = shotUpTo(x, mask.getTop() - 100);
+        int before = mask.count();
+
+        mask.sweep(pool, 0);
+        float firstY = mask.getHitY();
+        int cleared = mask.blastHit();
+
+        assertTrue(cleared > 1);
+        assertEquals(before - cleared, mask.count());
+        mask.sweep(pool, 0);
+        assertTrue(mask.getHitY() < firstY);
+    }
+
+    @Test
+    public void copyFrom_keepsEveryCell() {
+        ShelterMask mask = classic();
+        mask.blast(3, 10, 10);
+        ShelterMask copy = new ShelterMask();
+        copy.copyFrom(mask);
+
+        assertTrue(copy.sameLayout(mask));
+        assertEquals(mask.count(), copy.count());
+        for (int shelter = 0; shelter < 4; shelter++) {
+            assertTrue(copy.sameShelter(mask, shelter));
+        }
+        assertFalse(copy.get(3, 10, 10));
+        assertFalse(copy.sameShelter(classic(), 3));
+    }
+}
@@ -0,0 +1,136 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the broad phase and measures how much narrow phase work it leaves.
+ * The layout mirrors a 1080x1920 screen with the 4 shelters of 10x5 bricks.
+ */
+public class SpatialGridTest {
+    private static final int SCREEN_X = 1080;
+    private static final int SCREEN_Y = 1920;
+    private static final int CAPACITY = 400;
+
+    private SpatialGrid buildShelters() {
+        SpatialGrid grid = new SpatialGrid(SCREEN_X, SCREEN_Y, SCREEN_X / 20, SCREEN_Y / 20, CAPACITY);
+        float width = SCREEN_X / 90;
+        float height = SCREEN_Y / 40;
+        float shelterPadding = SCREEN_X / 9;
+        float startHeight = SCREEN_Y - (SCREEN_Y / 8 * 2);
+
+        int id = 0;
+        for (int shelter = 0; shelter < 4; shelter++) {
+            for (int column = 0; column < 10; column++) {
+                for (int row = 0; row < 5; row++) {
+                    float left = column * width + shelterPadding * 2 * shelter + shelterPadding;
+                    float top = row * height + startHeight;
+                    grid.insert(id++, left + 1, top + 1, left + width - 1, top + height - 1);
+                }
+            }
+        }
+        return grid;
+    }
+
+    @Test
+    public void query_returnsOverlappingItemOnce() {
+        SpatialGrid grid = new SpatialGrid(100, 100, 10, 10, 4);
+        grid.insert(0, 5, 5, 25, 25);
+        grid.insert(1, 80, 80, 85, 85);
+
+        int[] out = new int[4];
+        assertEquals(1, grid.query(0, 0, 30, 30, out));
+        assertEquals(0, out[0]);
+    }
+
+    @Test
+    public void removedItemsAreSkipped() {
+        SpatialGrid grid = new SpatialGrid(100, 100, 10, 10, 4);
+        grid.insert(2, 5, 5, 8, 8);
+        grid.remove(2);
+
+        assertEquals(0, grid.query(0, 0, 10, 10, new int[4]));
+        assertFalse(grid.contains(2));
+    }
+
+    /**
+     * A grid of the given capacity holding bullets live bullets in the shelters' band,
+     * ten columns of them, every further ten stacked on the ten before so they share cells
+     */
+    private SpatialGrid buildBullets(int capacity, int bullets) {
+        SpatialGrid grid = new SpatialGrid(SCREEN_X, SCREEN_Y, SCREEN_X / 20, SCREEN_Y / 20, capacity);
+        float startHeight = SCREEN_Y - (SCREEN_Y / 8 * 2);
+        for (int i = 0; i < bullets; i++) {
+            float x = 50 + (i % 10) * 100;
+            float y = startHeight + (i % 5) * (SCREEN_Y / 40);
+            grid.insert(i, x, y, x + 1, y + SCREEN_Y / 20);
+        }
+        return grid;
+    }
+
+    /**
+     * Candidates handed out when every brick of the 4 shelters looks for the bullets it touches
+     */
+    private long brickQueries(SpatialGrid grid) {
+        int[] out = new int[grid.getCapacity()];
+        float width = SCREEN_X / 90;
+        float height = SCREEN_Y / 40;
+        float shelterPadding = SCREEN_X / 9;
+        float startHeight = SCREEN_Y - (SCREEN_Y / 8 * 2);
+
+        grid.resetCandidateCount();
+        for (int shelter = 0; shelter < 4; shelter++) {
+            for (int column = 0; column < 10; column++) {
+                for (int row = 0; row < 5; row++) {
+                    float left = column * width + shelterPadding * 2 * shelter + shelterPadding;
+                    float top = row * height + startHeight;
+                    grid.query(left + 1, top + 1, left + width - 1, top + height - 1, out);
+                }
+            }
+        }
+        return grid.getCandidateCount();
+    }
+
+    @Test
+    public void clear_forgetsEveryInsertedItem() {
+        SpatialGrid grid = new SpatialGrid(100, 100, 10, 10, 4);
+        grid.insert(1, 5, 5, 25, 25);
+        grid.insert(3, 80, 80, 85, 85);
+        grid.clear();
+
+        assertFalse(grid.contains(1));
+        assertFalse(grid.contains(3));
+        assertEquals(0, grid.query(0, 0, 100, 100, new int[4]));
+
+        grid.insert(3, 5, 5, 8, 8);
+        assertEquals(1, grid.query(0, 0, 10, 10, new int[4]));
+    }
+
+    @Test
+    public void candidatesScaleWithActiveBulletsNotCapacity() {
+        long tenBullets = brickQueries(buildBullets(CAPACITY, 10));
+        long hundredBullets = brickQueries(buildBullets(CAPACITY, 100));
+        assertTrue("candidates " + tenBullets, tenBullets > 0);
+
+        /**
+         * Ten times the bullets in the same cells, ten times the candidates
+         */
+        assertEquals(tenBullets * 10, hundredBullets);
+
+        /**
+         * Ten times the room for bullets changes nothing
+         */
+        assertEquals(tenBullets, brickQueries(buildBullets(CAPACITY * 10, 10)));
+        assertEquals(hundredBullets, brickQueries(buildBullets(CAPACITY * 10, 100)));
+        assertEquals(0, brickQueries(buildBullets(CAPACITY * 10, 0)));
+    }
+
+    @Test
+    public void bulletInOpenSpace_costsNothing() {
+        SpatialGrid grid = buildShelters();
+        grid.resetCandidateCount();
+        grid.query(10, 10, 11, 10 + SCREEN_Y / 20, new int[CAPACITY]);
+        assertEquals(0, grid.getCandidateCount());
+    }
+}
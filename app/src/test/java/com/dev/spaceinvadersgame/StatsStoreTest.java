@@ -0,0 +1,110 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class StatsStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static SessionRecord game(long id, long duration, int score) {
+        return new SessionRecord(id, duration, score, 10, 5, 16000, 20000, 30000);
+    }
+
+    @Test
+    public void highScores_keepTheBestGames() throws Exception {
+        StatsStore store = new StatsStore(folder.getRoot(), 3);
+        for (int i = 0; i < 100; i++) {
+            store.save(game(i, 1000, (i * 37) % 101)).get();
+        }
+
+        List<SessionRecord> best = store.getHighScores();
+
+        assertEquals(3, best.size());
+        assertEquals(100, best.get(0).score);
+        assertTrue(best.get(1).score >= best.get(2).score);
+    }
+
+    @Test
+    public void restoredSession_keepsItsGameAndCounts() throws Exception {
+        GameEvents events = new GameEvents(16);
+        SessionStats before = new SessionStats();
+        events.subscribe(before);
+        before.start(42);
+        events.publish(GameEvents.SHOT_FIRED, 0);
+        events.publish(GameEvents.SHOT_FIRED, 0);
+        events.publish(GameEvents.INVADER_KILLED, 0);
+        events.drain();
+        before.addTime(1000);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        before.writeState(new DataOutputStream(bytes));
+        SessionStats after = new SessionStats();
+        after.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        SessionRecord record = after.toRecord(30, new FrameProfiler(16), FrameProfiler.FRAME);
+        assertEquals(42, record.gameId);
+        assertEquals(1000, record.durationNanos);
+        assertEquals(2, record.shots);
+        assertEquals(1, record.hits);
+    }
+
+    @Test
+    public void laterSaveOfAGame_replacesEarlierOne() throws Exception {
+        StatsStore store = new StatsStore(folder.getRoot(), 10);
+        store.save(game(7, 1000, 50)).get();
+        store.save(game(7, 5000, 40)).get();
+
+        List<SessionRecord> best = store.getHighScores();
+
+        assertEquals(1, best.size());
+        assertEquals(40, best.get(0).score);
+        assertEquals(0.5f, best.get(0).getAccuracy(), 0);
+    }
+
+    @Test
+    public void survivesAHalfWrittenRecord() throws Exception {
+        StatsStore store = new StatsStore(folder.getRoot(), 10);
+        store.save(game(1, 1000, 10)).get();
+
+        /**
+         * A crash in the middle of the next write
+         */
+        FileOutputStream out = new FileOutputStream(new File(folder.getRoot(), "sessions.log"), true);
+        out.write(new byte[SessionRecord.SIZE / 2]);
+        out.close();
+
+        StatsStore reopened = new StatsStore(folder.getRoot(), 10);
+        reopened.save(game(2, 1000, 20)).get();
+
+        List<SessionRecord> best = reopened.getHighScores();
+        assertEquals(2, best.size());
+        assertEquals(20, best.get(0).score);
+        assertEquals(10, best.get(1).score);
+    }
+
+    @Test
+    public void failuresComeBackThroughTheFuture() throws InterruptedException, IOException {
+        File notADirectory = folder.newFile();
+        StatsStore store = new StatsStore(notADirectory, 10);
+        try {
+            store.save(game(1, 1, 1)).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TouchTrackerTest {
+    private static final int SCREEN_X = 1080;
+    private static final int SCREEN_Y = 1920;
+
+    /**
+     * Just inside the strip the ship moves along, and well above it
+     */
+    private static final float STEER_Y = SCREEN_Y - SCREEN_Y / 8 + 1;
+    private static final float FIRE_Y = SCREEN_Y / 2;
+
+    private final CommandQueue commands = new CommandQueue(64);
+    private final TouchTracker touches = new TouchTracker(SCREEN_X, SCREEN_Y, commands);
+
+    /**
+     * The next command must be this one, stamped with this time
+     */
+    private void expect(int command, long timeNanos) {
+        assertEquals(timeNanos, commands.peekTime());
+        assertEquals(command, commands.poll());
+    }
+
+    @Test
+    public void steerAndShootWithTwoFingers() {
+        touches.down(0, 100, STEER_Y, 10);
+        touches.down(1, 900, FIRE_Y, 20);
+        touches.up(0, 30);
+        touches.up(1, 40);
+
+        expect(InputCommand.START, 10);
+        expect(InputCommand.MOVE_LEFT, 10);
+        expect(InputCommand.START, 20);
+        expect(InputCommand.HOLD_FIRE, 20);
+        expect(InputCommand.STOP, 30);
+        expect(InputCommand.RELEASE_FIRE, 40);
+        assertTrue(commands.isEmpty());
+        assertEquals(0, touches.getPointerCount());
+    }
+
+    @Test
+    public void slidingAcrossTheMiddle_turnsAtTheSampleThatCrossed() {
+        touches.down(0, 100, STEER_Y, 10);
+        touches.move(0, 400, STEER_Y, 11);
+        touches.move(0, 700, STEER_Y, 12);
+        touches.move(0, 800, STEER_Y, 13);
+
+        expect(InputCommand.START, 10);
+        expect(InputCommand.MOVE_LEFT, 10);
+        expect(InputCommand.MOVE_RIGHT, 12);
+        assertTrue(commands.isEmpty());
+    }
+
+    @Test
+    public void liftingAnywhereInTheStrip_stops() {
+        touches.down(0, 900, STEER_Y, 10);
+        touches.move(0, 900, FIRE_Y, 11);
+        touches.up(0, 12);
+
+        expect(InputCommand.START, 10);
+        expect(InputCommand.MOVE_RIGHT, 10);
+        expect(InputCommand.STOP, 12);
+    }
+
+    @Test
+    public void newestSteeringFinger_wins() {
+        touches.down(0, 100, STEER_Y, 10);
+        touches.down(1, 900, STEER_Y, 20);
+        touches.up(1, 30);
+        touches.up(0, 40);
+
+        expect(InputCommand.START, 10);
+        expect(InputCommand.MOVE_LEFT, 10);
+        expect(InputCommand.START, 20);
+        expect(InputCommand.MOVE_RIGHT, 20);
+        expect(InputCommand.MOVE_LEFT, 30);
+        expect(InputCommand.STOP, 40);
+    }
+
+    @Test
+    public void triggerIsHeldUntilTheLastShootingFingerLifts() {
+        touches.down(0, 100, FIRE_Y, 10);
+        touches.down(1, 900, FIRE_Y, 20);
+        touches.up(0, 30);
+        touches.up(1, 40);
+
+        expect(InputCommand.START, 10);
+        expect(InputCommand.HOLD_FIRE, 10);
+        expect(InputCommand.START, 20);
+        expect(InputCommand.HOLD_FIRE, 20);
+        expect(InputCommand.RELEASE_FIRE, 40);
+        assertTrue(commands.isEmpty());
+    }
+
+    @Test
+    public void cancel_letsGoOfEverything() {
+        touches.down(0, 100, STEER_Y, 10);
+        touches.down(1, 900, FIRE_Y, 20);
+        touches.cancel(30);
+
+        expect(InputCommand.START, 10);
+        expect(InputCommand.MOVE_LEFT, 10);
+        expect(InputCommand.START, 20);
+        expect(InputCommand.HOLD_FIRE, 20);
+        expect(InputCommand.STOP, 30);
+        expect(InputCommand.RELEASE_FIRE, 30);
+        assertEquals(0, touches.getPointerCount());
+    }
+
+    @Test
+    public void emptyQueue_hasNoTime() {
+        assertEquals(Long.MAX_VALUE, commands.peekTime());
+    }
+}
@@ -0,0 +1,108 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class WaveGeneratorTest {
+    @Test
+    public void parse_readsEveryKeyAndDefaultsTheRest() {
+        Wave wave = Wave.parse("invaders=9x4 speed=55.5 fire=2 bricks=8x3");
+
+        assertEquals(9, wave.columns);
+        assertEquals(4, wave.rows);
+        assertEquals(55.5f, wave.speed, 0);
+        assertEquals(2f, wave.fireRate, 0);
+        assertEquals(Wave.CLASSIC.shelters, wave.shelters);
+        assertEquals(8 * 3 * Wave.CLASSIC.shelters, wave.getBrickCount());
+        assertEquals(Wave.CLASSIC.speedUp, wave.speedUp, 0);
+    }
+
+    @Test
+    public void parse_roundTripsThroughText() {
+        Wave wave = new Wave(7, 3, 42, 1.25f, 1.5f, 5, 6, 4);
+        Wave copy = Wave.parse(wave.toString());
+
+        assertEquals(wave.toString(), copy.toString());
+    }
+
+    @Test
+    public void load_reportsTheBadLine() {
+        try {
+            WaveGenerator.load(new StringReader("# levels\ninvaders=6x5\ninvaders=six\n"), true);
+            fail("a bad wave was accepted");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Line 3"));
+        }
+    }
+
+    @Test
+    public void load_refusesNoWaves() {
+        try {
+            WaveGenerator.load(new StringReader("# nothing yet\n\n"), true);
+            fail("a game without levels was accepted");
+        } catch (IOException e) {
+            assertEquals("No waves defined", e.getMessage());
+        }
+    }
+
+    /**
+     * The levels the app ships with, read from the module directory the unit tests run in
+     */
+    @Test
+    public void shippedWaves_matchTheBuiltInOnes() throws IOException {
+        Reader reader = new FileReader(new File("src/main/assets/waves.txt"));
+        try {
+            WaveGenerator shipped = WaveGenerator.load(reader, true);
+            WaveGenerator standard = WaveGenerator.standard();
+            for (int level = 0; level < 20; level++) {
+                assertEquals(standard.get(level).toString(), shipped.get(level).toString());
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void standard_startsClassicThenGetsHarder() {
+        WaveGenerator waves = WaveGenerator.standard();
+
+        assertEquals(Wave.CLASSIC.toString(), waves.get(0).toString());
+        for (int level = 1; level < 40; level++) {
+            Wave previous = waves.get(level - 1);
+            Wave wave = waves.get(level);
+            assertTrue(wave.getInvaderCount() >= previous.getInvaderCount());
+            assertTrue(wave.speed > previous.speed);
+            assertTrue(wave.fireRate >= previous.fireRate);
+            assertTrue(wave.shelterRows <= previous.shelterRows);
+            assertTrue(wave.columns <= WaveGenerator.MAX_COLUMNS);
+            assertTrue(wave.rows <= WaveGenerator.MAX_ROWS);
+            assertTrue(wave.shelterRows >= WaveGenerator.MIN_SHELTER_ROWS);
+        }
+        assertTrue(waves.get(39).getInvaderCount() > Wave.CLASSIC.getInvaderCount());
+    }
+
+    @Test
+    public void get_isTheSameWaveEveryTime() {
+        WaveGenerator waves = WaveGenerator.standard();
+        Wave wave = waves.get(12);
+
+        assertSame(wave, waves.get(12));
+        assertEquals(wave.toString(), WaveGenerator.standard().get(12).toString());
+    }
+
+    @Test
+    public void fixed_repeatsItsWave() {
+        Wave wave = Wave.CLASSIC.withInvaders(20, 10);
+        WaveGenerator waves = WaveGenerator.fixed(wave);
+
+        assertSame(wave, waves.get(0));
+        assertSame(wave, waves.get(50));
+    }
+}
@@ -0,0 +1,71 @@
+package com.dev.spaceinvadersgame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WeaponTest {
+    private static final int SCREEN_Y = 1920;
+
+    @Test
+    public void classic_refusesWhileItsBulletFlies() {
+        BulletPool pool = new BulletPool(GameWorld.PLAYER_BULLETS, SCREEN_Y);
+
+        assertEquals(1, Weapon.CLASSIC.fire(pool, 100, SCREEN_Y));
+        assertEquals(0, Weapon.CLASSIC.fire(pool, 100, SCREEN_Y));
+        assertEquals(1, pool.size());
+        assertEquals(100, pool.getX(0), 0);
+    }
+
+    @Test
+    public void spread_fansOutEvenlyAroundStraightUp() {
+        BulletPool pool = new BulletPool(GameWorld.PLAYER_BULLETS, SCREEN_Y);
+        Weapon.SPREAD.fire(pool, 500, SCREEN_Y);
+        pool.update(1, 0, 1080, 0, Float.POSITIVE_INFINITY);
+
+        assertEquals(3, pool.size());
+        assertEquals(500, pool.getX(1), 1e-3f);
+        assertEquals(500 - pool.getX(0), pool.getX(2) - 500, 1e-3f);
+        assertTrue(pool.getX(0) < 500);
+        for (int i = 0; i < pool.size(); i++) {
+            assertTrue(pool.getY(i) < SCREEN_Y);
+        }
+    }
+
+    @Test
+    public void volley_isRefusedWholeWhenItDoesntFit() {
+        BulletPool pool = new BulletPool(4, SCREEN_Y);
+
+        assertEquals(3, Weapon.SPREAD.fire(pool, 500, SCREEN_Y));
+        assertEquals(0, Weapon.SPREAD.fire(pool, 500, SCREEN_Y));
+        assertEquals(3, pool.size());
+    }
+
+    @Test
+    public void storm_keepsHundredsOfBulletsInTheAir() {
+        BulletPool pool = new BulletPool(GameWorld.PLAYER_BULLETS, SCREEN_Y);
+        float dt = 1 / 60f;
+        int most = 0;
+        for (int tick = 0; tick < 600; tick++) {
+            if (tick % 6 == 0) {
+                Weapon.STORM.fire(pool, 540, SCREEN_Y);
+            }
+            pool.update(dt, 0, 1080, 0, Float.POSITIVE_INFINITY);
+            most = Math.max(most, pool.size());
+        }
+
+        assertTrue("at most " + most, most > 100);
+        assertTrue(most <= Weapon.STORM.maxInFlight);
+    }
+
+    @Test
+    public void byName_findsTheWavesWeapon() {
+        assertSame(Weapon.SPREAD, Wave.parse("weapon=spread").weapon);
+        assertSame(Weapon.CLASSIC, Wave.parse("invaders=3x3").weapon);
+        try {
+            Weapon.byName("laser");
+            fail("an unknown weapon was accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}